@@ -0,0 +1,32 @@
+#!/bin/sh
+# Builds the fast-startup image with an AppCDS archive recorded by a training run of that same image.
+# Needs Docker and a reachable database, e.g. `docker compose up -d db` from the repository root.
+#   ./build-appcds.sh                  -> builds into the local Docker daemon as filestore-app:fast-startup
+#   JIB_GOAL=build ./build-appcds.sh   -> pushes to the registry configured in pom.xml instead
+set -e
+cd "$(dirname "$0")"
+
+NETWORK=${NETWORK:-project_postgres}
+DB_URL=${DB_URL:-jdbc:postgresql://db:5432/customer}
+TRAINING_IMAGE=filestore-app:fast-startup-training
+
+rm -rf target/cds
+mkdir -p target/cds
+mvn -B -ntp -Pfast-startup -DskipTests package jib:dockerBuild -Djib.to.image="$TRAINING_IMAGE"
+
+# the training run refreshes the context and exits; the JVM and classpath must match the final image exactly
+docker run --rm --network "$NETWORK" \
+  -v "$PWD/target/cds:/app/cds" \
+  -e SPRING_DATASOURCE_URL="$DB_URL" \
+  -e SPRING_PROFILES_ACTIVE=fast-startup \
+  --entrypoint java "$TRAINING_IMAGE" \
+  -XX:ArchiveClassesAtExit=/app/cds/application.jsa \
+  -Dspring.context.exit=onRefresh \
+  -Dspring.aot.enabled=true \
+  -cp @/app/jib-classpath-file com.matay.Main
+
+if [ "${JIB_GOAL:-dockerBuild}" = "dockerBuild" ]; then
+  mvn -B -ntp -Pfast-startup -DskipTests jib:dockerBuild -Djib.to.image=filestore-app:fast-startup
+else
+  mvn -B -ntp -Pfast-startup -DskipTests jib:build
+fi
@@ -0,0 +1,27 @@
+#!/bin/sh
+# Prints the time from `docker run` until the first successful customer request.
+#   ./measure-startup.sh matayyy/filestore-app:latest
+#   ./measure-startup.sh filestore-app:fast-startup
+set -e
+
+IMAGE=${1:?usage: measure-startup.sh <image>}
+NETWORK=${NETWORK:-project_postgres}
+DB_URL=${DB_URL:-jdbc:postgresql://db:5432/customer}
+PORT=${PORT:-8089}
+
+start=$(date +%s%N)
+container=$(docker run -d --rm --network "$NETWORK" -p "$PORT:8080" -e SPRING_DATASOURCE_URL="$DB_URL" "$IMAGE")
+trap 'docker stop "$container" > /dev/null' EXIT
+
+# a 404 is fine too, it still went through the whole stack
+while :; do
+  code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/v1/customers/1" || true)
+  case "$code" in
+    200|404) break ;;
+  esac
+  sleep 0.05
+done
+end=$(date +%s%N)
+
+echo "$IMAGE: first request after $(( (end - start) / 1000000 )) ms"
+docker logs "$container" 2>&1 | grep -E "Started Main|warm-up" || true
@@ -1,41 +1,32 @@
 package com.matay;
 
-import com.github.javafaker.Faker;
-import com.github.javafaker.Name;
-import com.matay.customer.Customer;
-import com.matay.customer.CustomerRepository;
-import org.springframework.boot.CommandLineRunner;
+import com.matay.customer.CustomerChangeBroadcaster;
+import com.matay.customer.CustomerPurgeService;
+import com.matay.customer.CustomerStatsService;
+import com.matay.customer.CustomerWarmUpService;
+import com.matay.file.CustomerFileService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
-
-import java.util.Random;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class Main {
 
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
     }
 
+    //with lazy initialisation (fast-startup profile) @Scheduled methods are only registered once their bean exists
     @Bean
-    CommandLineRunner runner(CustomerRepository customerRepository) {
-        return args -> {
-            var faker = new Faker();
-            Name name = faker.name();
-            String firstName = name.firstName();
-            String lastName = name.lastName();
-
-            Random random = new Random();
-
-            Customer customer = new Customer(
-                    firstName + " " + lastName,
-                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "@mataycode.com",
-                    random.nextInt(16,70)
-
-            );
-
-            customerRepository.save(customer);
-        };
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                CustomerStatsService.class, CustomerWarmUpService.class, CustomerPurgeService.class,
+                CustomerFileService.class, CustomerChangeBroadcaster.class
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.matay.concurrency;
+
+import com.matay.deadline.RequestDeadline;
+import com.matay.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit on in-flight database operations, driven by observed latency.
+ * <p>
+ * A long-term average RTT approximates the latency of an unloaded database and a short-term average the current
+ * one. Their ratio is the gradient: while latency stays near the baseline the limit grows by about
+ * {@code sqrt(limit)} per sample, once queueing inside Postgres inflates latency the limit shrinks
+ * proportionally. Callers over the limit wait briefly in a bounded queue and are rejected after that.
+ */
+@Component
+public class GradientConcurrencyLimiter implements MeterBinder {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+
+    private final Object lock = new Object();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    public GradientConcurrencyLimiter(
+            @Value("${customer.concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${customer.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${customer.concurrency-limit.min-limit:2}") int minLimit,
+            @Value("${customer.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${customer.concurrency-limit.max-wait-ms:20}") long maxWaitMs,
+            @Value("${customer.concurrency-limit.max-queue:50}") int maxQueue) {
+        this.enabled = enabled;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxQueue = maxQueue;
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        if (!enabled) {
+            return operation.get();
+        }
+        acquire();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = operation.get();
+            success = true;
+            return result;
+        } finally {
+            release(System.nanoTime() - start, success);
+        }
+    }
+
+    void acquire() {
+        synchronized (lock) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return;
+            }
+            if (waiting >= maxQueue) {
+                reject();
+            }
+
+            waiting++;
+            try {
+                //no point queueing past the request deadline
+                long deadline = System.nanoTime() + Math.min(maxWaitNanos, RequestDeadline.remainingNanos());
+                while (inFlight >= (int) limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        if (RequestDeadline.isExpired()) {
+                            throw RequestDeadline.exceeded();
+                        }
+                        reject();
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject();
+            } finally {
+                waiting--;
+            }
+        }
+    }
+
+    void release(long rttNanos, boolean success) {
+        synchronized (lock) {
+            int concurrency = inFlight;
+            inFlight--;
+            //failures say nothing about queueing latency
+            if (success) {
+                update(rttNanos, concurrency);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void update(long rttNanos, int concurrency) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+
+        //after a lasting latency shift the baseline follows so the limit can recover
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        //do not grow the limit while demand does not even use half of it
+        if (concurrency < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private void reject() {
+        rejected.increment();
+        throw new ServiceOverloadedException("Database is at its concurrency limit, please retry later");
+    }
+
+    public int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("customer.dao.concurrency.limit", this, GradientConcurrencyLimiter::getLimit)
+                .register(registry);
+        Gauge.builder("customer.dao.concurrency.in-flight", this, GradientConcurrencyLimiter::getInFlight)
+                .register(registry);
+        FunctionCounter.builder("customer.dao.concurrency.rejected", this, GradientConcurrencyLimiter::getRejectedCount)
+                .register(registry);
+    }
+}
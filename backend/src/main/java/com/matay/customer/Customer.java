@@ -1,29 +1,18 @@
 package com.matay.customer;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.Objects;
 
+//emails are unique among live customers only, through the partial index customer_email_unique
 @Entity
-@Table(
-        name = "customer",
-        uniqueConstraints = {
-                @UniqueConstraint(name = "customer_email_unique", columnNames = "email")
-        }
-
-)
+@Table(name = "customer")
+@SQLRestriction("deleted_at IS NULL")
 public class Customer {
 
     @Id
-    @SequenceGenerator(
-            name = "customer_id_seq",
-            sequenceName = "customer_id_seq",
-            allocationSize = 1
-    )
-    @GeneratedValue(
-            strategy = GenerationType.SEQUENCE,
-            generator = "customer_id_seq"
-    )
+    @CustomerIdGenerator.Pooled
     private Integer id;
     @Column(nullable = false)
     private String name;
@@ -0,0 +1,245 @@
+package com.matay.customer;
+
+import com.matay.deadline.RequestDeadline;
+import com.matay.resilience.PartialStaleReadException;
+import com.matay.resilience.StaleCustomer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent single-customer lookups into one multi-id query.
+ * Lookups arriving within {@code windowMicros} (or until {@code maxBatchSize} keys are queued)
+ * are fetched together, and concurrent lookups of the same id share one fetch. A lookup only joins a fetch that has
+ * not been sent yet, so it never gets a row read before it arrived (e.g. before its own request's write committed).
+ */
+@Component
+public class CustomerBatchLoader {
+
+    private final CustomerDao customerDao;
+    private final CustomerNearCache customerNearCache;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatchSize;
+
+    //lookups queued for the next batch, entries leave once their batch is sent
+    private final ConcurrentHashMap<Integer, CompletableFuture<Optional<Customer>>> queued =
+            new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<Integer> pending = new ArrayList<>();
+    private Long pendingDeadline;
+    private boolean pendingUnbounded;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    public CustomerBatchLoader(
+            @Qualifier("resilient") CustomerDao customerDao,
+            CustomerNearCache customerNearCache,
+            @Value("${customer.coalescing.enabled:true}") boolean enabled,
+            @Value("${customer.coalescing.window-micros:1000}") long windowMicros,
+            @Value("${customer.coalescing.max-batch-size:64}") int maxBatchSize) {
+        this.customerDao = customerDao;
+        this.customerNearCache = customerNearCache;
+        this.enabled = enabled;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "customer-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Optional<Customer> load(Integer id) {
+        lookups.increment();
+        //a transaction must read its own uncommitted writes on its own connection
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            queries.increment();
+            return customerDao.selectCustomerById(id);
+        }
+
+        //near-cache hits need no round trip, so they must not wait for the batch window either
+        Optional<Customer> cached = customerNearCache.getCustomer(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        //join a queued fetch for the same id if there is one
+        CompletableFuture<Optional<Customer>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Customer>> existing = queued.putIfAbsent(id, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        enqueue(id);
+        return await(future);
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    private void enqueue(Integer id) {
+        Map<Integer, CompletableFuture<Optional<Customer>>> full = null;
+        Long fullDeadline = null;
+        boolean first;
+        synchronized (lock) {
+            pending.add(id);
+            first = pending.size() == 1;
+            addPendingDeadline(RequestDeadline.get());
+            if (pending.size() >= maxBatchSize) {
+                fullDeadline = takePendingDeadline();
+                full = takePending();
+            }
+        }
+
+        if (full != null) {
+            dispatch(full, fullDeadline);
+        } else if (first) {
+            scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void flush() {
+        Map<Integer, CompletableFuture<Optional<Customer>>> batch;
+        Long deadline;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            deadline = takePendingDeadline();
+            batch = takePending();
+        }
+        dispatch(batch, deadline);
+    }
+
+    //called under lock: once taken, lookups of these ids start a new batch instead of joining this one
+    private Map<Integer, CompletableFuture<Optional<Customer>>> takePending() {
+        Map<Integer, CompletableFuture<Optional<Customer>>> batch = new LinkedHashMap<>();
+        for (Integer id : pending) {
+            batch.put(id, queued.remove(id));
+        }
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    //the batch serves every waiter, so it runs until the latest of their deadlines and without one if any has none
+    private void addPendingDeadline(Long deadline) {
+        if (deadline == null) {
+            pendingUnbounded = true;
+        } else if (pendingDeadline == null || deadline - pendingDeadline > 0) {
+            pendingDeadline = deadline;
+        }
+    }
+
+    private Long takePendingDeadline() {
+        Long deadline = pendingUnbounded ? null : pendingDeadline;
+        pendingDeadline = null;
+        pendingUnbounded = false;
+        return deadline;
+    }
+
+    /**
+     * Runs the batch query under {@code deadline}, so it gets a statement timeout and deadline-aware queueing
+     * even on the scheduler thread.
+     */
+    private void dispatch(Map<Integer, CompletableFuture<Optional<Customer>>> batch, Long deadline) {
+        Long previous = RequestDeadline.get();
+        RequestDeadline.setAt(deadline);
+        try {
+            dispatch(batch);
+        } finally {
+            RequestDeadline.setAt(previous);
+        }
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<Optional<Customer>>> batch) {
+        try {
+            queries.increment();
+            Map<Integer, Customer> found = customerDao.selectCustomersByIds(List.copyOf(batch.keySet()))
+                    .stream()
+                    .collect(Collectors.toMap(Customer::getId, Function.identity()));
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(found.get(id))));
+        } catch (PartialStaleReadException e) {
+            //lookups answered from the stale cache still complete, only the others fail
+            Map<Integer, Customer> stale = e.getStaleCustomers()
+                    .stream()
+                    .collect(Collectors.toMap(Customer::getId, Function.identity()));
+            batch.forEach((id, future) -> {
+                Customer customer = stale.get(id);
+                if (customer != null) {
+                    future.complete(Optional.of(customer));
+                } else {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            //errors included, a waiter without a deadline would otherwise block forever
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    //every waiter gets its own copy, callers such as updateCustomer modify the customer they are handed
+    private static Optional<Customer> await(CompletableFuture<Optional<Customer>> future) {
+        try {
+            //the shared fetch keeps running for the other waiters, this caller just stops waiting
+            if (RequestDeadline.isSet()) {
+                return future.get(Math.max(0, RequestDeadline.remainingNanos()), TimeUnit.NANOSECONDS)
+                        .map(CustomerBatchLoader::copy);
+            }
+            return future.get().map(CustomerBatchLoader::copy);
+        } catch (TimeoutException e) {
+            throw RequestDeadline.exceeded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Customer copy(Customer customer) {
+        if (customer instanceof StaleCustomer stale) {
+            return new StaleCustomer(stale, stale.staleness());
+        }
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package com.matay.customer;
+
+public record CustomerBatchOperation(
+        Type type,
+        Integer customerId,
+        String name,
+        String email,
+        Integer age
+) {
+    public enum Type {
+        REGISTER, UPDATE, DELETE, GET
+    }
+}
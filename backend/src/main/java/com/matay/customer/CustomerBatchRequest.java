@@ -0,0 +1,9 @@
+package com.matay.customer;
+
+import java.util.List;
+
+public record CustomerBatchRequest(
+        boolean atomic,
+        List<CustomerBatchOperation> operations
+) {
+}
@@ -0,0 +1,9 @@
+package com.matay.customer;
+
+public record CustomerBatchResult(
+        int index,
+        int status,
+        Customer customer,
+        String error
+) {
+}
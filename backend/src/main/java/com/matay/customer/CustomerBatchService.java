@@ -0,0 +1,113 @@
+package com.matay.customer;
+
+import com.matay.exception.RequestValidationException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CustomerBatchService {
+
+    static final int MAX_OPERATIONS = 100;
+
+    private final CustomerService customerService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerBatchService(CustomerService customerService, TransactionTemplate transactionTemplate) {
+        this.customerService = customerService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public List<CustomerBatchResult> execute(CustomerBatchRequest request) {
+        List<CustomerBatchOperation> operations = request.operations();
+        if (operations == null || operations.isEmpty()) {
+            throw new RequestValidationException("Batch must contain at least one operation");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new RequestValidationException(
+                    "Batch must not contain more than %s operations".formatted(MAX_OPERATIONS)
+            );
+        }
+
+        if (!request.atomic()) {
+            List<CustomerBatchResult> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                results.add(apply(i, operations.get(i)));
+            }
+            return results;
+        }
+
+        //atomic: one connection, one transaction, stop and roll back on first failure
+        return transactionTemplate.execute(status -> {
+            List<CustomerBatchResult> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                CustomerBatchResult result = apply(i, operations.get(i));
+                results.add(result);
+                if (result.status() != HttpStatus.OK.value()) {
+                    status.setRollbackOnly();
+                    //what ran before the failure is undone, reporting it as done would be a lie
+                    for (int j = 0; j < i; j++) {
+                        results.set(j, new CustomerBatchResult(
+                                j, HttpStatus.FAILED_DEPENDENCY.value(), null, "Rolled back, batch failed"
+                        ));
+                    }
+                    for (int j = i + 1; j < operations.size(); j++) {
+                        results.add(new CustomerBatchResult(
+                                j, HttpStatus.FAILED_DEPENDENCY.value(), null, "Not executed, batch rolled back"
+                        ));
+                    }
+                    break;
+                }
+            }
+            return results;
+        });
+    }
+
+    private CustomerBatchResult apply(int index, CustomerBatchOperation operation) {
+        try {
+            if (operation.type() == null) {
+                throw new RequestValidationException("Operation type is required");
+            }
+            Customer customer = switch (operation.type()) {
+                case REGISTER -> customerService.addCustomer(new CustomerRegistrationRequest(
+                        operation.name(), operation.email(), operation.age()
+                ));
+                case UPDATE -> {
+                    customerService.updateCustomer(requireId(operation), new CustomerUpdateRequest(
+                            operation.name(), operation.email(), operation.age()
+                    ));
+                    yield null;
+                }
+                case DELETE -> {
+                    customerService.deleteCustomerById(requireId(operation));
+                    yield null;
+                }
+                case GET -> customerService.getCustomerById(requireId(operation));
+            };
+            return new CustomerBatchResult(index, HttpStatus.OK.value(), customer, null);
+        } catch (RuntimeException e) {
+            return new CustomerBatchResult(index, statusOf(e).value(), null, e.getMessage());
+        }
+    }
+
+    private static Integer requireId(CustomerBatchOperation operation) {
+        if (operation.customerId() == null) {
+            throw new RequestValidationException("Operation %s requires customerId".formatted(operation.type()));
+        }
+        return operation.customerId();
+    }
+
+    private static HttpStatus statusOf(RuntimeException e) {
+        if (e instanceof DuplicateKeyException) {
+            return HttpStatus.CONFLICT;
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,11 @@
+package com.matay.customer;
+
+public record CustomerChange(
+        Type type,
+        Integer customerId,
+        Customer customer
+) {
+    public enum Type {
+        UPSERT, DELETE
+    }
+}
@@ -0,0 +1,159 @@
+package com.matay.customer;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans customer change events out to SSE subscribers. Every subscriber has a bounded buffer;
+ * when a slow consumer overflows it the buffer is dropped and replaced by a single RESYNC event,
+ * telling the client to catch up through the changes endpoint.
+ * <p>
+ * Events are written by a fixed pool of senders, each subscriber drained by at most one of them at a time, and an
+ * idle connection gets a heartbeat comment now and then so proxies do not close it.
+ */
+@Component
+public class CustomerChangeBroadcaster implements CustomerChangeSubscriber {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final LongAdder dropped = new LongAdder();
+
+    public CustomerChangeBroadcaster(
+            @Value("${customer.stream.buffer-size:256}") int bufferSize,
+            @Value("${customer.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${customer.stream.sender-threads:4}") int senderThreads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        //a subscriber is queued at most once while its drain is pending, so the queue stays below the subscriber count
+        this.senders = new ThreadPoolExecutor(
+                senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "customer-change-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    @Override
+    public void onChange(CustomerChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                subscriber.queue.clear();
+                subscriber.queue.offer(CustomerChangeEvent.resync());
+                dropped.increment();
+            }
+            drain(subscriber);
+        }
+    }
+
+    @Override
+    public void onResync() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.queue.clear();
+            subscriber.queue.offer(CustomerChangeEvent.resync());
+            drain(subscriber);
+        }
+    }
+
+    @Override
+    public void onDisconnect() {
+        onResync();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${customer.stream.heartbeat-interval-ms:15000}",
+            initialDelayString = "${customer.stream.heartbeat-interval-ms:15000}"
+    )
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue.set(true);
+            drain(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void drain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        senders.execute(() -> {
+            try {
+                CustomerChangeEvent event;
+                while ((event = subscriber.queue.poll()) != null) {
+                    SseEmitter.SseEventBuilder sseEvent = SseEmitter.event()
+                            .name(event.type())
+                            .data(event);
+                    if (event.changeSeq() != null) {
+                        sseEvent.id(event.changeSeq().toString());
+                    }
+                    subscriber.emitter.send(sseEvent);
+                }
+                if (subscriber.heartbeatDue.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                //client went away
+                subscribers.remove(subscriber);
+                subscriber.queue.clear();
+                subscriber.emitter.completeWithError(e);
+            } finally {
+                subscriber.draining.set(false);
+            }
+            if ((!subscriber.queue.isEmpty() || subscriber.heartbeatDue.get()) && subscribers.contains(subscriber)) {
+                drain(subscriber);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<CustomerChangeEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<CustomerChangeEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.matay.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class CustomerChangeDataAccessService {
+
+    public record ChangeRow(long changeSeq, CustomerChange change) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerRowMapper customerRowMapper;
+
+    public CustomerChangeDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerRowMapper = customerRowMapper;
+    }
+
+    /**
+     * Returns changes after {@code sinceSeq} in sequence order. Rows written by transactions at or above the
+     * snapshot xmin are held back: an older transaction still in flight may own a lower sequence number,
+     * and handing out a token past it would make clients skip that change once it commits. Soft deleted customers
+     * are reported as deletes, their purge later adds a tombstone that repeats the delete.
+     */
+    public List<ChangeRow> selectChangesSince(long sinceSeq, int limit) {
+        var sql = """
+                SELECT change_seq, deleted, id, name, email, age
+                FROM (
+                    SELECT change_seq, deleted_at IS NOT NULL AS deleted, id, name, email, age
+                    FROM customer
+                    WHERE change_seq > ?
+                      AND change_xid < pg_snapshot_xmin(pg_current_snapshot())
+                    UNION ALL
+                    SELECT change_seq, true AS deleted, id, NULL, NULL, NULL
+                    FROM customer_tombstone
+                    WHERE change_seq > ?
+                      AND change_xid < pg_snapshot_xmin(pg_current_snapshot())
+                ) changes
+                ORDER BY change_seq
+                LIMIT ?
+                """;
+
+        List<ChangeRow> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, rs -> {
+            int id = rs.getInt("id");
+            CustomerChange change = rs.getBoolean("deleted")
+                    ? new CustomerChange(CustomerChange.Type.DELETE, id, null)
+                    : new CustomerChange(CustomerChange.Type.UPSERT, id, customerRowMapper.mapRow(rs, rows.size()));
+            rows.add(new ChangeRow(rs.getLong("change_seq"), change));
+        }, sinceSeq, sinceSeq, limit);
+        return rows;
+    }
+}
@@ -0,0 +1,15 @@
+package com.matay.customer;
+
+public record CustomerChangeEvent(
+        String type,
+        Integer customerId,
+        Long changeSeq,
+        String email,
+        String previousEmail
+) {
+    public static final String RESYNC = "RESYNC";
+
+    static CustomerChangeEvent resync() {
+        return new CustomerChangeEvent(RESYNC, null, null, null, null);
+    }
+}
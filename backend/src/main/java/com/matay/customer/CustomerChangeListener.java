@@ -0,0 +1,198 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matay.sharding.ShardingProperties;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds dedicated connections outside the pool that LISTEN on {@code customer_changes}
+ * and hands every notification to the {@link CustomerChangeSubscriber}s. With sharding enabled every shard
+ * database is listened to as well as the main one, since writes to a shard only notify on that shard.
+ */
+@Component
+public class CustomerChangeListener implements SmartLifecycle {
+
+    static final String CHANNEL = "customer_changes";
+    private static final int POLL_MILLIS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeListener.class);
+
+    private final List<Database> databases;
+    private final List<CustomerChangeSubscriber> customerChangeSubscribers;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private record Database(String url, String username, String password) {
+    }
+
+    public CustomerChangeListener(
+            DataSourceProperties dataSourceProperties,
+            ShardingProperties shardingProperties,
+            List<CustomerChangeSubscriber> customerChangeSubscribers,
+            ObjectMapper objectMapper,
+            @Value("${customer.stream.enabled:true}") boolean enabled,
+            @Value("${customer.stream.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        List<Database> databases = new ArrayList<>();
+        databases.add(new Database(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        ));
+        if (shardingProperties.enabled()) {
+            shardingProperties.shards().stream()
+                    .map(shard -> new Database(shard.url(), shard.username(), shard.password()))
+                    .filter(shard -> !databases.contains(shard))
+                    .forEach(databases::add);
+        }
+        this.databases = List.copyOf(databases);
+        this.customerChangeSubscribers = customerChangeSubscribers;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "customer-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (Database database : databases) {
+                    connections.add(openListening(database));
+                }
+                //anything sent while we were away is lost
+                customerChangeSubscribers.forEach(this::resync);
+
+                List<PGConnection> pgConnections = new ArrayList<>();
+                for (Connection connection : connections) {
+                    pgConnections.add(connection.unwrap(PGConnection.class));
+                }
+                //every database is polled in turn, notifications wait at most about one poll period
+                int pollMillis = Math.max(1, POLL_MILLIS / pgConnections.size());
+                while (running) {
+                    for (PGConnection pgConnection : pgConnections) {
+                        PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                        if (notifications == null) {
+                            continue;
+                        }
+                        for (PGNotification notification : notifications) {
+                            publish(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                //whatever ends the loop, subscribers must stop trusting what they hold
+                if (!running) {
+                    return;
+                }
+                log.warn("Customer change listener lost its connection, retrying in {} ms", reconnectDelayMs, e);
+                customerChangeSubscribers.forEach(this::disconnect);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connections.forEach(CustomerChangeListener::closeQuietly);
+            }
+        }
+    }
+
+    private static Connection openListening(Database database) throws SQLException {
+        Connection connection = DriverManager.getConnection(database.url(), database.username(), database.password());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close customer change listener connection", e);
+        }
+    }
+
+    private void publish(String payload) {
+        CustomerChangeEvent event;
+        try {
+            event = objectMapper.readValue(payload, CustomerChangeEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed customer change notification: {}", payload, e);
+            return;
+        }
+        for (CustomerChangeSubscriber subscriber : customerChangeSubscribers) {
+            try {
+                subscriber.onChange(event);
+            } catch (RuntimeException e) {
+                //the change may be half applied, start that subscriber over instead of letting it serve stale data
+                log.warn("{} failed to apply customer change {}, resyncing it", subscriber, payload, e);
+                resync(subscriber);
+            }
+        }
+    }
+
+    //one failing subscriber must neither stop the listener nor keep the change from the others
+    private void resync(CustomerChangeSubscriber subscriber) {
+        try {
+            subscriber.onResync();
+        } catch (RuntimeException e) {
+            log.warn("{} failed to resync", subscriber, e);
+            disconnect(subscriber);
+        }
+    }
+
+    private void disconnect(CustomerChangeSubscriber subscriber) {
+        try {
+            subscriber.onDisconnect();
+        } catch (RuntimeException e) {
+            log.warn("{} failed to handle the disconnect", subscriber, e);
+        }
+    }
+}
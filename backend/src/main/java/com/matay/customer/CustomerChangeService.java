@@ -0,0 +1,56 @@
+package com.matay.customer;
+
+import com.matay.exception.RequestValidationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class CustomerChangeService {
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final CustomerChangeDataAccessService customerChangeDataAccessService;
+
+    public CustomerChangeService(CustomerChangeDataAccessService customerChangeDataAccessService) {
+        this.customerChangeDataAccessService = customerChangeDataAccessService;
+    }
+
+    public CustomerChanges getChangesSince(String since, Integer limit) {
+        long sinceSeq = parseToken(since);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RequestValidationException("Limit must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+
+        //fetch one extra row to know if another page follows
+        List<CustomerChangeDataAccessService.ChangeRow> rows =
+                customerChangeDataAccessService.selectChangesSince(sinceSeq, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<CustomerChangeDataAccessService.ChangeRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        long nextSeq = page.isEmpty() ? sinceSeq : page.get(page.size() - 1).changeSeq();
+        return new CustomerChanges(
+                page.stream().map(CustomerChangeDataAccessService.ChangeRow::change).toList(),
+                Long.toString(nextSeq),
+                hasMore
+        );
+    }
+
+    private static long parseToken(String since) {
+        //no token means a full sync from the beginning
+        if (since == null || since.isBlank()) {
+            return 0;
+        }
+        try {
+            long seq = Long.parseLong(since);
+            if (seq < 0) {
+                throw new NumberFormatException();
+            }
+            return seq;
+        } catch (NumberFormatException e) {
+            throw new RequestValidationException("Invalid change token [%s]".formatted(since));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.matay.customer;
+
+/**
+ * Receives the customer changes picked up by {@link CustomerChangeListener}.
+ */
+public interface CustomerChangeSubscriber {
+
+    void onChange(CustomerChangeEvent event);
+
+    /**
+     * Called once the listener is (re)connected; anything sent before may have been missed.
+     */
+    void onResync();
+
+    /**
+     * Called when the listener lost its connection and changes are no longer being received.
+     */
+    default void onDisconnect() {
+    }
+}
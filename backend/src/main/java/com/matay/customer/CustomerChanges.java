@@ -0,0 +1,10 @@
+package com.matay.customer;
+
+import java.util.List;
+
+public record CustomerChanges(
+        List<CustomerChange> changes,
+        String nextToken,
+        boolean hasMore
+) {
+}
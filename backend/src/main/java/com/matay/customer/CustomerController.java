@@ -1,7 +1,16 @@
 package com.matay.customer;
 
+import com.matay.heavyhitters.CustomerHeavyHitters;
+import com.matay.resilience.StaleCustomer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -9,19 +18,83 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerBatchService customerBatchService;
+    private final CustomerStatsService customerStatsService;
+    private final CustomerChangeService customerChangeService;
+    private final CustomerChangeBroadcaster customerChangeBroadcaster;
+    private final CustomerExportService customerExportService;
+    private final CustomerResponseCache customerResponseCache;
+    private final CustomerJsonListWriter customerJsonListWriter;
+    private final CustomerHeavyHitters customerHeavyHitters;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService,
+                              CustomerBatchService customerBatchService,
+                              CustomerStatsService customerStatsService,
+                              CustomerChangeService customerChangeService,
+                              CustomerChangeBroadcaster customerChangeBroadcaster,
+                              CustomerExportService customerExportService,
+                              CustomerResponseCache customerResponseCache,
+                              CustomerJsonListWriter customerJsonListWriter,
+                              CustomerHeavyHitters customerHeavyHitters) {
         this.customerService = customerService;
+        this.customerBatchService = customerBatchService;
+        this.customerStatsService = customerStatsService;
+        this.customerChangeService = customerChangeService;
+        this.customerChangeBroadcaster = customerChangeBroadcaster;
+        this.customerExportService = customerExportService;
+        this.customerResponseCache = customerResponseCache;
+        this.customerJsonListWriter = customerJsonListWriter;
+        this.customerHeavyHitters = customerHeavyHitters;
     }
 
     @GetMapping
-    public List<Customer> getCustomers() {
-        return customerService.getAllCustomers();
+    public void getCustomers(HttpServletResponse response) throws IOException {
+        customerJsonListWriter.write(response);
     }
 
+    @GetMapping("stats")
+    public CustomerStats getCustomerStats() {
+        return customerStatsService.getStats();
+    }
+
+    @GetMapping("changes")
+    public CustomerChanges getCustomerChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return customerChangeService.getChangesSince(since, limit);
+    }
+
+    @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCustomerChanges() {
+        return customerChangeBroadcaster.subscribe();
+    }
+
+    @GetMapping(path = "export", produces = "application/x-ndjson")
+    public StreamingResponseBody exportCustomers(
+            @RequestParam(value = "ordered", defaultValue = "true") boolean ordered) {
+        return out -> customerExportService.export(out, ordered);
+    }
+
+    //encoded bodies are cached per representation and copied to the response as they are
     @GetMapping("{customerId}")
-    public Customer getCustomerById(@PathVariable("customerId") Integer customerId) {
-        return customerService.getCustomerById(customerId);
+    public void getCustomerById(@PathVariable("customerId") Integer customerId,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        var representation = CustomerResponseCache.Representation.of(request);
+        var encoded = customerResponseCache.get(customerId, representation);
+        if (encoded != null) {
+            //misses are recorded by the service, hits never reach it but are the hottest keys
+            customerHeavyHitters.record(CustomerHeavyHitters.Operation.READ, customerId);
+        } else {
+            long epoch = customerResponseCache.epoch();
+            Customer customer = customerService.getCustomerById(customerId);
+            if (customer instanceof StaleCustomer stale) {
+                response.setHeader(HttpHeaders.AGE, String.valueOf(stale.staleness().toSeconds()));
+                response.setHeader("Warning", "110 - \"Response is Stale\"");
+            }
+            encoded = customerResponseCache.put(epoch, customer, representation);
+        }
+        encoded.writeTo(response);
     }
 
     @PostMapping
@@ -29,6 +102,11 @@ public class CustomerController {
         customerService.addCustomer(request);
     }
 
+    @PostMapping("batch")
+    public List<CustomerBatchResult> executeBatch(@RequestBody CustomerBatchRequest request) {
+        return customerBatchService.execute(request);
+    }
+
     @DeleteMapping("{customerId}")
     public void deleteCustomerById(@PathVariable("customerId") Integer customerId) {
         customerService.deleteCustomerById(customerId);
@@ -1,12 +1,18 @@
 package com.matay.customer;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CustomerDao {
     List<Customer> selectAllCustomers();
     Optional<Customer> selectCustomerById(Integer id);
+    List<Customer> selectCustomersByIds(Collection<Integer> ids);
+    /**
+     * Inserts {@code customer} and sets the id the database generated on it.
+     */
     void insertCustomer(Customer customer);
+    void insertCustomers(List<Customer> customers);
     boolean existsPersonWithEmail(String email);
     boolean existPersonWithId(Integer id);
     void deleteCustomerById(Integer id);
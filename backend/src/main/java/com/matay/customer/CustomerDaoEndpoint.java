@@ -0,0 +1,51 @@
+package com.matay.customer;
+
+import com.matay.exception.ResourceNotFoundException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Primary and shadow DAO switching on the management side, {@code /actuator/customerdao}. Not exposed unless listed
+ * in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@WebEndpoint(id = "customerdao")
+public class CustomerDaoEndpoint {
+
+    private static final double DEFAULT_SAMPLE_RATE = 0.01;
+
+    private final CustomerRoutingDataAccessService routing;
+
+    public CustomerDaoEndpoint(CustomerRoutingDataAccessService routing) {
+        this.routing = routing;
+    }
+
+    @ReadOperation
+    public CustomerDaoStatus getStatus() {
+        return routing.status();
+    }
+
+    // POST /actuator/customerdao/primary {"name": "jpa"} and POST /actuator/customerdao/shadow {"name": "jpa", "sampleRate": 0.01}
+    @WriteOperation
+    public CustomerDaoStatus control(@Selector String action, String name, @Nullable Double sampleRate) {
+        return switch (action) {
+            case "primary" -> routing.switchPrimary(name);
+            case "shadow" -> routing.startShadow(name, sampleRate == null ? DEFAULT_SAMPLE_RATE : sampleRate);
+            default -> throw new ResourceNotFoundException("Unknown customer dao action [%s]".formatted(action));
+        };
+    }
+
+    // DELETE /actuator/customerdao/shadow
+    @DeleteOperation
+    public CustomerDaoStatus stop(@Selector String action) {
+        if (!action.equals("shadow")) {
+            throw new ResourceNotFoundException("Unknown customer dao action [%s]".formatted(action));
+        }
+        return routing.stopShadow();
+    }
+}
@@ -0,0 +1,14 @@
+package com.matay.customer;
+
+public record CustomerDaoStatus(
+        String primary,
+        String shadow,
+        double sampleRate,
+        long compared,
+        long mismatches,
+        long shadowErrors,
+        long dropped,
+        double primaryMeanMillis,
+        double shadowMeanMillis
+) {
+}
@@ -0,0 +1,57 @@
+package com.matay.customer;
+
+import com.github.javafaker.Faker;
+import com.github.javafaker.Name;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Random;
+
+/**
+ * Adds one random demo customer per boot when the {@code seed} profile is active. Runs after startup on its own
+ * thread, so neither building the {@link Faker} nor the insert delay the first request.
+ */
+@Component
+@Profile("seed")
+public class CustomerDemoSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerDemoSeeder.class);
+
+    private final CustomerRepository customerRepository;
+
+    public CustomerDemoSeeder(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::seed, "customer-demo-seeder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void seed() {
+        try {
+            var faker = new Faker();
+            Name name = faker.name();
+            String firstName = name.firstName();
+            String lastName = name.lastName();
+
+            Random random = new Random();
+
+            Customer customer = new Customer(
+                    firstName + " " + lastName,
+                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "@mataycode.com",
+                    random.nextInt(16, 70)
+            );
+
+            customerRepository.save(customer);
+        } catch (RuntimeException e) {
+            log.warn("Could not seed demo customer", e);
+        }
+    }
+}
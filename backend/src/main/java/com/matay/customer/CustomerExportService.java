@@ -0,0 +1,76 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Writes every customer as newline-delimited JSON. When the JDBC DAO is the primary store the rows are read through
+ * its parallel range scan, with the JPA DAO as primary they are streamed from a cursor, otherwise they are read
+ * through the primary DAO.
+ */
+@Service
+public class CustomerExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerExportService.class);
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final CustomerJPADataAccessService customerJpaDao;
+    private final CustomerRoutingDataAccessService routing;
+    private final ObjectMapper objectMapper;
+    private final int workers;
+
+    public CustomerExportService(CustomerJDBCDataAccessService customerDao,
+                                 CustomerJPADataAccessService customerJpaDao,
+                                 CustomerRoutingDataAccessService routing,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customer.scan.workers:4}") int workers) {
+        this.customerDao = customerDao;
+        this.customerJpaDao = customerJpaDao;
+        this.routing = routing;
+        this.objectMapper = objectMapper;
+        this.workers = workers;
+    }
+
+    public void export(OutputStream out, boolean ordered) {
+        long start = System.nanoTime();
+        LongAdder rows = new LongAdder();
+        Consumer<Customer> writer = customer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(customer));
+                out.write(NEW_LINE);
+                rows.increment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        //other stores (e.g. sharded) do not live in the database behind the JDBC DAO
+        switch (routing.getPrimaryName()) {
+            case "jdbc" -> customerDao.scanAllCustomers(workers, ordered, writer);
+            case "jpa" -> customerJpaDao.forEachCustomer(ordered, writer);
+            default -> exportFromPrimary(ordered, writer);
+        }
+        log.info("Exported {} customers from {} in {} ms",
+                rows.sum(), routing.getPrimaryName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void exportFromPrimary(boolean ordered, Consumer<Customer> writer) {
+        List<Customer> customers = routing.selectAllCustomers();
+        if (ordered) {
+            customers = customers.stream().sorted(Comparator.comparing(Customer::getId)).toList();
+        }
+        customers.forEach(writer);
+    }
+}
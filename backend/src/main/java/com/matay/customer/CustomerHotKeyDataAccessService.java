@@ -0,0 +1,62 @@
+package com.matay.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the ids that were hot in the near-caches in {@code customer_hot_key}, so a restarted node knows what to
+ * pre-warm. Every node merges its hottest ids in; entries not refreshed within the retention period age out.
+ */
+@Repository
+public class CustomerHotKeyDataAccessService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerHotKeyDataAccessService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void saveHotKeys(Collection<Integer> ids, Duration retention) {
+        var sql = """
+                INSERT INTO customer_hot_key(customer_id)
+                SELECT unnest(?)
+                ON CONFLICT (customer_id) DO UPDATE SET recorded_at = now()
+                """;
+
+        jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())));
+        jdbcTemplate.update(
+                "DELETE FROM customer_hot_key WHERE recorded_at < now() - make_interval(secs => ?)",
+                retention.toSeconds()
+        );
+    }
+
+    public List<Integer> selectHotKeys(int limit) {
+        var sql = """
+                SELECT customer_id
+                FROM customer_hot_key
+                ORDER BY recorded_at DESC
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.queryForList(sql, Integer.class, limit);
+    }
+
+    /**
+     * Falls back to the most recently written customers when no hot keys have been recorded yet.
+     */
+    public List<Integer> selectRecentlyChangedIds(int limit) {
+        var sql = """
+                SELECT id
+                FROM customer
+                WHERE deleted_at IS NULL
+                ORDER BY change_seq DESC
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.queryForList(sql, Integer.class, limit);
+    }
+}
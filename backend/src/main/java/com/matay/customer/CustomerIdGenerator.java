@@ -0,0 +1,66 @@
+package com.matay.customer;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.resource.jdbc.ResourceRegistry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Hands Hibernate customer ids from {@code customer_id_seq} in blocks of {@link #BLOCK_SIZE}, fetched with a single
+ * query. The sequence keeps a step of 1, so the column default used by the JDBC DAO and {@code COPY} takes one id
+ * per row, while JPA inserts still cost one round trip per block. Ids of a block need not be consecutive.
+ */
+public class CustomerIdGenerator implements IdentifierGenerator {
+
+    static final int BLOCK_SIZE = 50;
+    private static final String SQL = "SELECT nextval('customer_id_seq') FROM generate_series(1, " + BLOCK_SIZE + ")";
+
+    @IdGeneratorType(CustomerIdGenerator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.FIELD, ElementType.METHOD})
+    public @interface Pooled {
+    }
+
+    private final Deque<Integer> ids = new ArrayDeque<>(BLOCK_SIZE);
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (ids.isEmpty()) {
+            fetchBlock(session);
+        }
+        return ids.poll();
+    }
+
+    private void fetchBlock(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        ResourceRegistry resourceRegistry = jdbcCoordinator.getLogicalConnection().getResourceRegistry();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(SQL);
+        try {
+            ResultSet rs = jdbcCoordinator.getResultSetReturn().extract(statement, SQL);
+            try {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            } finally {
+                resourceRegistry.release(rs, statement);
+            }
+        } catch (SQLException e) {
+            throw new IdentifierGenerationException("Could not fetch customer ids", e);
+        } finally {
+            resourceRegistry.release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+}
@@ -1,49 +1,250 @@
 package com.matay.customer;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDao {
 
+    //caps what a scan buffers: workers * MAX_SCAN_RANGE_IDS rows at most
+    static final long MAX_SCAN_RANGE_IDS = 10_000;
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final boolean softDelete;
 
-    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate,
+                                         CustomerRowMapper customerRowMapper,
+                                         @Value("${customer.soft-delete.enabled:false}") boolean softDelete) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.softDelete = softDelete;
     }
 
     @Override
     public List<Customer> selectAllCustomers() {
         var sql = """
-                SELECT id, name, email, age FROM customer
+                SELECT id, name, email, age FROM customer WHERE deleted_at IS NULL
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper);
     }
 
+    /**
+     * Streams every customer row to {@code handler} through a server-side cursor, without mapping rows to
+     * {@link Customer}. Columns are {@code id, name, email, age} in that order.
+     */
+    @Transactional(readOnly = true)
+    public void forEachCustomerRow(RowCallbackHandler handler) {
+        var sql = """
+                SELECT id, name, email, age FROM customer WHERE deleted_at IS NULL
+                """;
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql);
+            statement.setFetchSize(1000);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Reads every customer by splitting {@code [min(id), max(id)]} into ranges that {@code workers} pooled
+     * connections scan concurrently. All workers import the snapshot exported by a coordinating transaction, so
+     * the result is as consistent as a single {@code SELECT}. Customers are handed to {@code consumer} on the
+     * calling thread, in id order when {@code ordered} is set and in range completion order otherwise. At most
+     * {@code workers} ranges of up to {@link #MAX_SCAN_RANGE_IDS} ids are scanned or buffered at a time.
+     * Needs {@code workers + 1} pooled connections.
+     */
+    public void scanAllCustomers(int workers, boolean ordered, Consumer<Customer> consumer) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        try (Connection coordinator = dataSource.getConnection()) {
+            coordinator.setAutoCommit(false);
+            coordinator.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                String snapshot;
+                long minId;
+                long maxId;
+                try (Statement statement = coordinator.createStatement();
+                     ResultSet rs = statement.executeQuery(
+                             "SELECT pg_export_snapshot(), min(id), max(id) FROM customer")) {
+                    rs.next();
+                    snapshot = rs.getString(1);
+                    minId = rs.getLong(2);
+                    maxId = rs.getLong(3);
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                }
+                scanRanges(dataSource, snapshot, minId, maxId, Math.max(1, workers), ordered, consumer);
+            } finally {
+                coordinator.rollback();
+            }
+        } catch (SQLException e) {
+            DataAccessException translated = jdbcTemplate.getExceptionTranslator()
+                    .translate("scanAllCustomers", null, e);
+            throw translated != null ? translated : new UncategorizedSQLException("scanAllCustomers", null, e);
+        }
+    }
+
+    private void scanRanges(DataSource dataSource, String snapshot, long minId, long maxId,
+                            int workers, boolean ordered, Consumer<Customer> consumer) throws SQLException {
+        //a few ranges per worker so one dense range does not leave the other workers idle, and ranges small
+        //enough that the ones buffered behind a slow range stay small
+        long rangeSize = Math.max(1, Math.min(MAX_SCAN_RANGE_IDS, (maxId - minId + workers * 4L) / (workers * 4L)));
+        long rangeCount = (maxId - minId) / rangeSize + 1;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "customer-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<List<Customer>> completion = new ExecutorCompletionService<>(executor);
+            //at most one range per worker is scanned or waiting to be consumed
+            Deque<Future<List<Customer>>> inFlight = new ArrayDeque<>(workers);
+            long submitted = 0;
+            for (long consumed = 0; consumed < rangeCount; consumed++) {
+                while (submitted < rangeCount && inFlight.size() < workers) {
+                    long fromId = minId + submitted * rangeSize;
+                    long toId = Math.min(maxId, fromId + rangeSize - 1);
+                    Callable<List<Customer>> scan = () -> scanRange(dataSource, snapshot, fromId, toId);
+                    //ordered scans take ranges by position, the completion queue would keep them reachable
+                    inFlight.add(ordered ? executor.submit(scan) : completion.submit(scan));
+                    submitted++;
+                }
+                Future<List<Customer>> range = ordered ? inFlight.poll() : completion.take();
+                inFlight.remove(range);
+                range.get().forEach(consumer);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Customer> scanRange(DataSource dataSource, String snapshot, long fromId, long toId)
+            throws SQLException {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id BETWEEN ? AND ?
+                  AND deleted_at IS NULL
+                ORDER BY id
+                """;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    //snapshot ids come from pg_export_snapshot and cannot be bound as a parameter
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                }
+                List<Customer> customers = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setFetchSize(1000);
+                    statement.setLong(1, fromId);
+                    statement.setLong(2, toId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            customers.add(customerRowMapper.mapRow(rs, customers.size()));
+                        }
+                    }
+                }
+                return customers;
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
         var sql = """
                 SELECT id, name, email, age
                 FROM customer
                 WHERE id = ?
+                  AND deleted_at IS NULL
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper, id).stream().findFirst();
     }
 
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY (?)
+                  AND deleted_at IS NULL
+                """;
+
+        return jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                customerRowMapper
+        );
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         var sql = """
                 INSERT INTO customer(name, email, age)
                 VALUES (?, ?, ?)
+                RETURNING id
                 """;
-        jdbcTemplate.update(sql, customer.getName(), customer.getEmail(), customer.getAge());
+        customer.setId(jdbcTemplate.queryForObject(
+                sql, Integer.class, customer.getName(), customer.getEmail(), customer.getAge()
+        ));
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        var sql = """
+                INSERT INTO customer(name, email, age)
+                VALUES (?, ?, ?)
+                """;
+        jdbcTemplate.batchUpdate(sql, customers, 500, (ps, customer) -> {
+            ps.setString(1, customer.getName());
+            ps.setString(2, customer.getEmail());
+            ps.setInt(3, customer.getAge());
+        });
     }
 
     @Override
@@ -52,6 +253,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                 SELECT count(id)
                 FROM customer
                 WHERE email = ?
+                  AND deleted_at IS NULL
                 """;
 
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
@@ -64,15 +266,27 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                 SELECT count(id)
                 FROM customer
                 WHERE id = ?
+                  AND deleted_at IS NULL
                 """;
 
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
         return count != null && count > 0;
     }
 
+    /**
+     * In soft-delete mode the row is only stamped with {@code deleted_at} and {@link CustomerPurgeService} removes
+     * it later, in batches and off-peak.
+     */
     @Override
     public void deleteCustomerById(Integer id) {
-        var sql = """
+        var sql = softDelete
+                ? """
+                UPDATE customer
+                SET deleted_at = now()
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                """
+                : """
                 DELETE
                 FROM customer
                 WHERE id = ?
@@ -85,7 +299,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     @Override
     public void updateCustomer(Customer updatedCustomer) {
         if(updatedCustomer.getName() != null) {
-            String sql = "UPDATE customer SET name = ? WHERE id = ?";
+            String sql = "UPDATE customer SET name = ? WHERE id = ? AND deleted_at IS NULL";
             int result = jdbcTemplate.update(
                     sql,
                     updatedCustomer.getName(),
@@ -95,7 +309,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         }
 
         if(updatedCustomer.getAge() != null) {
-            String sql = "UPDATE customer SET age = ? WHERE id = ?";
+            String sql = "UPDATE customer SET age = ? WHERE id = ? AND deleted_at IS NULL";
             int result = jdbcTemplate.update(
                     sql,
                     updatedCustomer.getAge(),
@@ -105,7 +319,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         }
 
         if(updatedCustomer.getEmail() != null) {
-            String sql = "UPDATE customer SET email = ? WHERE id = ?";
+            String sql = "UPDATE customer SET email = ? WHERE id = ? AND deleted_at IS NULL";
             int result = jdbcTemplate.update(
                     sql,
                     updatedCustomer.getEmail(),
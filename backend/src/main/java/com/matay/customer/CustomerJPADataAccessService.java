@@ -1,27 +1,58 @@
 package com.matay.customer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDao {
 
     private final CustomerRepository customerRepository;
+    private final boolean softDelete;
 
-    public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+    public CustomerJPADataAccessService(CustomerRepository customerRepository,
+                                        @Value("${customer.soft-delete.enabled:false}") boolean softDelete) {
         this.customerRepository = customerRepository;
+        this.softDelete = softDelete;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Customer> selectAllCustomers() {
-        return customerRepository.findAll();
+        try (Stream<Customer> customers = customerRepository.streamAllCustomers()) {
+            return customers.toList();
+        }
+    }
+
+    /**
+     * Hands every customer to {@code consumer} while the rows are fetched in chunks, without holding them all.
+     * Customers come in id order when {@code ordered} is set.
+     */
+    @Transactional(readOnly = true)
+    public void forEachCustomer(boolean ordered, Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = ordered
+                ? customerRepository.streamAllCustomersOrderedById()
+                : customerRepository.streamAllCustomers()) {
+            customers.forEach(consumer);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> selectCustomerById(Integer id) {
-        return customerRepository.findById(id);
+        return customerRepository.findCustomerById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        return customerRepository.findCustomersByIds(ids);
     }
 
     @Override
@@ -29,6 +60,12 @@ public class CustomerJPADataAccessService implements CustomerDao {
         customerRepository.save(customer);
     }
 
+    //one transaction, ids come in blocks from CustomerIdGenerator and inserts are sent in JDBC batches
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        customerRepository.saveAll(customers);
+    }
+
     @Override
     public boolean existsPersonWithEmail(String email) {
         return customerRepository.existsCustomerByEmail(email);
@@ -40,12 +77,24 @@ public class CustomerJPADataAccessService implements CustomerDao {
     }
 
     @Override
+    @Transactional
     public void deleteCustomerById(Integer id) {
-        customerRepository.deleteById(id);
+        if (softDelete) {
+            customerRepository.softDeleteCustomerById(id);
+        } else {
+            customerRepository.deleteCustomerById(id);
+        }
     }
 
+    //a single UPDATE instead of merge(), which selects the row first; null fields are left unchanged
     @Override
+    @Transactional
     public void updateCustomer(Customer updatedCustomer) {
-        customerRepository.save(updatedCustomer);
+        customerRepository.updateCustomer(
+                updatedCustomer.getId(),
+                updatedCustomer.getName(),
+                updatedCustomer.getEmail(),
+                updatedCustomer.getAge()
+        );
     }
 }
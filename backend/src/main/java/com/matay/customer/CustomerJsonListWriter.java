@@ -0,0 +1,110 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matay.concurrency.GradientConcurrencyLimiter;
+import com.matay.deadline.RequestDeadline;
+import com.matay.resilience.CircuitBreaker;
+import com.matay.timing.RequestTiming;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes the customer list as JSON. When the JDBC DAO is the primary store, rows are turned into JSON tokens
+ * straight from the {@link ResultSet}, with no {@link Customer} per row and no intermediate list; the output has
+ * the same shape Jackson produces for {@code List<Customer>}. The stream takes a breaker and a limiter permit like
+ * {@link CustomerLimitedDataAccessService} does. Otherwise the list goes through the regular DAO chain.
+ */
+@Component
+public class CustomerJsonListWriter {
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final CustomerRoutingDataAccessService routing;
+    private final GradientConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean streaming;
+
+    public CustomerJsonListWriter(CustomerJDBCDataAccessService customerDao,
+                                  CustomerService customerService,
+                                  ObjectMapper objectMapper,
+                                  CustomerRoutingDataAccessService routing,
+                                  GradientConcurrencyLimiter limiter,
+                                  CircuitBreaker circuitBreaker,
+                                  @Value("${customer.list-streaming.enabled:true}") boolean enabled) {
+        this.customerDao = customerDao;
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.routing = routing;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.streaming = enabled;
+    }
+
+    public void write(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        //other stores (e.g. sharded) do not live in the database behind the JDBC DAO
+        if (!streaming || !"jdbc".equals(routing.getPrimaryName())) {
+            List<Customer> customers = customerService.getAllCustomers();
+            RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+            objectMapper.writeValue(response.getOutputStream(), customers);
+            return;
+        }
+        //rows are fetched while the array is written, fetching counts as SQL and the rest as serialization
+        RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+        write(response.getOutputStream());
+    }
+
+    void write(OutputStream out) throws IOException {
+        //expired requests do not even queue for a slot
+        RequestDeadline.checkNotExpired();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            circuitBreaker.execute(() -> limiter.execute(() -> {
+                customerDao.forEachCustomerRow(rs -> writeCustomer(generator, rs));
+                return null;
+            }));
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (DataAccessException e) {
+            //a statement cancelled by its query timeout surfaces as a generic data access failure
+            if (RequestDeadline.isExpired()) {
+                throw RequestDeadline.exceeded();
+            }
+            throw e;
+        }
+    }
+
+    private static void writeCustomer(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            writeInt(generator, "id", rs.getInt(1), rs.wasNull());
+            generator.writeStringField("name", rs.getString(2));
+            generator.writeStringField("email", rs.getString(3));
+            writeInt(generator, "age", rs.getInt(4), rs.wasNull());
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInt(JsonGenerator generator, String field, int value, boolean isNull) throws IOException {
+        if (isNull) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.matay.customer;
+
+import com.matay.concurrency.GradientConcurrencyLimiter;
+import com.matay.deadline.RequestDeadline;
+import com.matay.resilience.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Repository("limited")
+public class CustomerLimitedDataAccessService implements CustomerDao {
+
+    private final CustomerDao customerDao;
+    private final GradientConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+
+    //the routing DAO picks the backing store, e.g. "sharded" when customer.sharding is enabled
+    public CustomerLimitedDataAccessService(@Qualifier("routing") CustomerDao customerDao,
+                                            GradientConcurrencyLimiter limiter,
+                                            CircuitBreaker circuitBreaker) {
+        this.customerDao = customerDao;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return call(customerDao::selectAllCustomers);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return call(() -> customerDao.selectCustomerById(id));
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        return call(() -> customerDao.selectCustomersByIds(ids));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        call(() -> {
+            customerDao.insertCustomer(customer);
+            return null;
+        });
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        call(() -> {
+            customerDao.insertCustomers(customers);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return call(() -> customerDao.existsPersonWithEmail(email));
+    }
+
+    @Override
+    public boolean existPersonWithId(Integer id) {
+        return call(() -> customerDao.existPersonWithId(id));
+    }
+
+    @Override
+    public void deleteCustomerById(Integer id) {
+        call(() -> {
+            customerDao.deleteCustomerById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        call(() -> {
+            customerDao.updateCustomer(updatedCustomer);
+            return null;
+        });
+    }
+
+    private <T> T call(Supplier<T> operation) {
+        //expired requests do not even queue for a slot
+        RequestDeadline.checkNotExpired();
+        try {
+            //an open breaker rejects before the call takes a slot or a connection
+            return circuitBreaker.execute(() -> limiter.execute(operation));
+        } catch (DataAccessException e) {
+            //a statement cancelled by its query timeout surfaces as a generic data access failure
+            if (RequestDeadline.isExpired()) {
+                throw RequestDeadline.exceeded();
+            }
+            throw e;
+        }
+    }
+}
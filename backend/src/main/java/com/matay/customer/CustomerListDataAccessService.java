@@ -3,6 +3,7 @@ package com.matay.customer;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,12 +43,24 @@ public class CustomerListDataAccessService implements CustomerDao {
                 .findFirst();
     }
 
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        return customers.stream()
+                .filter(customer -> ids.contains(customer.getId()))
+                .toList();
+    }
+
     //TODO: BUG - NEW CUSTOMER DOES NOT HAVE ID
     @Override
     public void insertCustomer(Customer customer) {
         customers.add(customer);
     }
 
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        CustomerListDataAccessService.customers.addAll(customers);
+    }
+
     @Override
     public boolean existsPersonWithEmail(String email) {
         return customers.stream()
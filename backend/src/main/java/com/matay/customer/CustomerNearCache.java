@@ -0,0 +1,149 @@
+package com.matay.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node cache of customers and email lookups. Entries are invalidated locally on writes and on every node
+ * through the {@code customer_changes} notifications; while the listener is disconnected nothing is served.
+ * <p>
+ * Loads follow a read-epoch-then-recheck protocol: callers take {@link #epoch()} before reading the database and
+ * pass it back on put. If an invalidation happened in between, the freshly put entry is removed again, so a read
+ * racing a write can never leave a stale entry behind.
+ */
+@Component
+public class CustomerNearCache implements CustomerChangeSubscriber {
+
+    private final boolean enabled;
+    private final Cache<Integer, Optional<Customer>> customers;
+    private final Cache<String, Boolean> emails;
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile boolean listening;
+
+    public CustomerNearCache(
+            @Value("${customer.near-cache.enabled:true}") boolean enabled,
+            @Value("${customer.near-cache.max-size:100000}") long maxSize,
+            @Value("${customer.near-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.customers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.emails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isActive() {
+        return enabled && listening;
+    }
+
+    public long epoch() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the cached lookup result, or {@code null} when the id is not cached
+     */
+    public Optional<Customer> getCustomer(Integer id) {
+        if (!isActive()) {
+            return null;
+        }
+        Optional<Customer> cached = customers.getIfPresent(id);
+        return cached == null ? null : cached.map(CustomerNearCache::copy);
+    }
+
+    /**
+     * @return whether the entry was kept, {@code false} when inactive or invalidated since {@code epoch}
+     */
+    public boolean putCustomer(long epoch, Integer id, Optional<Customer> customer) {
+        if (!isActive()) {
+            return false;
+        }
+        //cached instances are never handed out, callers mutate the customers they get
+        customers.put(id, customer.map(CustomerNearCache::copy));
+        if (epoch != invalidations.get()) {
+            customers.invalidate(id);
+            return false;
+        }
+        return true;
+    }
+
+    public Boolean getEmailExists(String email) {
+        return isActive() ? emails.getIfPresent(email) : null;
+    }
+
+    public void putEmailExists(long epoch, String email, boolean exists) {
+        if (!isActive()) {
+            return;
+        }
+        emails.put(email, exists);
+        if (epoch != invalidations.get()) {
+            emails.invalidate(email);
+        }
+    }
+
+    public void invalidate(Integer id, String... changedEmails) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            customers.invalidate(id);
+        }
+        for (String email : changedEmails) {
+            if (email != null) {
+                emails.invalidate(email);
+            }
+        }
+    }
+
+    /**
+     * @return up to {@code limit} cached ids, most frequently used first
+     */
+    public List<Integer> hottestIds(int limit) {
+        return customers.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElse(List.of());
+    }
+
+    public long size() {
+        return customers.estimatedSize() + emails.estimatedSize();
+    }
+
+    @Override
+    public void onChange(CustomerChangeEvent event) {
+        invalidate(event.customerId(), event.email(), event.previousEmail());
+    }
+
+    @Override
+    public void onResync() {
+        invalidateAll();
+        listening = true;
+    }
+
+    @Override
+    public void onDisconnect() {
+        listening = false;
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        customers.invalidateAll();
+        emails.invalidateAll();
+    }
+
+    private static Customer copy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+    }
+}
@@ -0,0 +1,148 @@
+package com.matay.customer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Repository("nearCache")
+public class CustomerNearCacheDataAccessService implements CustomerDao {
+
+    private final CustomerDao customerDao;
+    private final CustomerNearCache customerNearCache;
+    private final CustomerResponseCache customerResponseCache;
+
+    public CustomerNearCacheDataAccessService(@Qualifier("limited") CustomerDao customerDao,
+                                              CustomerNearCache customerNearCache,
+                                              CustomerResponseCache customerResponseCache) {
+        this.customerDao = customerDao;
+        this.customerNearCache = customerNearCache;
+        this.customerResponseCache = customerResponseCache;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        if (!cacheable()) {
+            return customerDao.selectCustomerById(id);
+        }
+        Optional<Customer> cached = customerNearCache.getCustomer(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long epoch = customerNearCache.epoch();
+        Optional<Customer> customer = customerDao.selectCustomerById(id);
+        customerNearCache.putCustomer(epoch, id, customer);
+        return customer;
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        if (!cacheable()) {
+            return customerDao.selectCustomersByIds(ids);
+        }
+
+        List<Customer> result = new ArrayList<>(ids.size());
+        List<Integer> misses = new ArrayList<>();
+        for (Integer id : ids) {
+            Optional<Customer> cached = customerNearCache.getCustomer(id);
+            if (cached == null) {
+                misses.add(id);
+            } else {
+                cached.ifPresent(result::add);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        long epoch = customerNearCache.epoch();
+        Map<Integer, Customer> found = customerDao.selectCustomersByIds(misses)
+                .stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        for (Integer id : misses) {
+            Optional<Customer> customer = Optional.ofNullable(found.get(id));
+            customerNearCache.putCustomer(epoch, id, customer);
+            customer.ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        customerDao.insertCustomer(customer);
+        customerNearCache.invalidate(customer.getId(), customer.getEmail());
+        customerResponseCache.invalidate(customer.getId());
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        customerDao.insertCustomers(customers);
+        customers.forEach(customer -> {
+            customerNearCache.invalidate(customer.getId(), customer.getEmail());
+            customerResponseCache.invalidate(customer.getId());
+        });
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        if (!cacheable()) {
+            return customerDao.existsPersonWithEmail(email);
+        }
+        Boolean cached = customerNearCache.getEmailExists(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        long epoch = customerNearCache.epoch();
+        boolean exists = customerDao.existsPersonWithEmail(email);
+        customerNearCache.putEmailExists(epoch, email, exists);
+        return exists;
+    }
+
+    @Override
+    public boolean existPersonWithId(Integer id) {
+        if (!cacheable()) {
+            return customerDao.existPersonWithId(id);
+        }
+        return selectCustomerById(id).isPresent();
+    }
+
+    @Override
+    public void deleteCustomerById(Integer id) {
+        String previousEmail = cachedEmail(id);
+        customerDao.deleteCustomerById(id);
+        customerNearCache.invalidate(id, previousEmail);
+        customerResponseCache.invalidate(id);
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        String previousEmail = cachedEmail(updatedCustomer.getId());
+        customerDao.updateCustomer(updatedCustomer);
+        customerNearCache.invalidate(updatedCustomer.getId(), updatedCustomer.getEmail(), previousEmail);
+        customerResponseCache.invalidate(updatedCustomer.getId());
+    }
+
+    private boolean cacheable() {
+        //uncommitted reads inside a transaction must neither be served from nor leak into the cache
+        return customerNearCache.isActive() && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private String cachedEmail(Integer id) {
+        Optional<Customer> cached = customerNearCache.getCustomer(id);
+        return cached == null ? null : cached.map(Customer::getEmail).orElse(null);
+    }
+}
@@ -0,0 +1,64 @@
+package com.matay.customer;
+
+import com.matay.sharding.ShardRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class CustomerPurgeDataAccessService {
+
+    //the main database and, with sharding enabled, every shard, the sharded DAO soft deletes there
+    private final List<JdbcTemplate> databases;
+
+    public CustomerPurgeDataAccessService(JdbcTemplate jdbcTemplate, Optional<ShardRegistry> shardRegistry) {
+        List<JdbcTemplate> databases = new ArrayList<>();
+        databases.add(jdbcTemplate);
+        shardRegistry.ifPresent(registry -> databases.addAll(registry.shards()));
+        this.databases = List.copyOf(databases);
+    }
+
+    /**
+     * Hard deletes up to {@code batchSize} customers soft deleted more than {@code retention} ago, oldest first.
+     * Rows locked by another purger are skipped rather than waited for.
+     *
+     * @return number of customers removed
+     */
+    public int purgeDeletedCustomers(Duration retention, int batchSize) {
+        var sql = """
+                DELETE FROM customer
+                WHERE id IN (
+                    SELECT id
+                    FROM customer
+                    WHERE deleted_at < now() - make_interval(secs => ?)
+                    ORDER BY deleted_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                """;
+
+        int removed = 0;
+        for (JdbcTemplate database : databases) {
+            if (removed >= batchSize) {
+                break;
+            }
+            removed += database.update(sql, retention.toSeconds(), batchSize - removed);
+        }
+        return removed;
+    }
+
+    public long countDeletedCustomers() {
+        long total = 0;
+        for (JdbcTemplate database : databases) {
+            Long count = database.queryForObject(
+                    "SELECT count(*) FROM customer WHERE deleted_at IS NOT NULL", Long.class
+            );
+            total += count == null ? 0 : count;
+        }
+        return total;
+    }
+}
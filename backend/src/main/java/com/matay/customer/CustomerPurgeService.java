@@ -0,0 +1,119 @@
+package com.matay.customer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hard deletes soft deleted customers once their retention has passed. It only runs inside the configured off-peak
+ * window and removes rows in small batches with a pause in between, so the purge never holds many row locks or
+ * floods WAL, replicas and the change listeners at once.
+ */
+@Service
+public class CustomerPurgeService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerPurgeService.class);
+
+    private final CustomerPurgeDataAccessService customerPurgeDataAccessService;
+    private final boolean enabled;
+    private final Duration retention;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final int batchSize;
+    private final Duration pause;
+
+    private final LongAdder purged = new LongAdder();
+
+    public CustomerPurgeService(
+            CustomerPurgeDataAccessService customerPurgeDataAccessService,
+            @Value("${customer.soft-delete.enabled:false}") boolean enabled,
+            @Value("${customer.soft-delete.retention:24h}") Duration retention,
+            @Value("${customer.soft-delete.purge.window-start:01:00}") String windowStart,
+            @Value("${customer.soft-delete.purge.window-end:05:00}") String windowEnd,
+            @Value("${customer.soft-delete.purge.batch-size:1000}") int batchSize,
+            @Value("${customer.soft-delete.purge.pause:200ms}") Duration pause) {
+        this.customerPurgeDataAccessService = customerPurgeDataAccessService;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.windowStart = LocalTime.parse(windowStart);
+        this.windowEnd = LocalTime.parse(windowEnd);
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${customer.soft-delete.purge.interval-ms:60000}",
+            initialDelayString = "${customer.soft-delete.purge.interval-ms:60000}"
+    )
+    public void purgeOffPeak() {
+        LocalTime now = LocalTime.now();
+        if (!enabled || !isOffPeak(now, windowStart, windowEnd)) {
+            return;
+        }
+
+        Duration untilWindowEnd = Duration.between(now, windowEnd);
+        if (untilWindowEnd.isNegative()) {
+            untilWindowEnd = untilWindowEnd.plusDays(1);
+        }
+        int removed = purge(untilWindowEnd);
+        if (removed > 0) {
+            log.info("Purged {} soft deleted customers", removed);
+        }
+    }
+
+    /**
+     * Purges batch after batch until a batch comes back short, {@code budget} is spent or the thread is interrupted.
+     *
+     * @return number of customers removed
+     */
+    int purge(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            int removed = customerPurgeDataAccessService.purgeDeletedCustomers(retention, batchSize);
+            total += removed;
+            purged.add(removed);
+            if (removed < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    //a window whose end is before its start runs over midnight
+    static boolean isOffPeak(LocalTime now, LocalTime start, LocalTime end) {
+        if (start.isBefore(end)) {
+            return !now.isBefore(start) && now.isBefore(end);
+        }
+        return !now.isBefore(start) || now.isBefore(end);
+    }
+
+    public long getPurgedCount() {
+        return purged.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.soft-delete.purged", this, CustomerPurgeService::getPurgedCount)
+                .register(registry);
+        Gauge.builder("customer.soft-delete.pending", customerPurgeDataAccessService,
+                        CustomerPurgeDataAccessService::countDeletedCustomers)
+                .register(registry);
+    }
+}
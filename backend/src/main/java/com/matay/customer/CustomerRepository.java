@@ -1,9 +1,63 @@
 package com.matay.customer;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
 
     boolean existsCustomerByEmail(String email);
     boolean existsCustomerById(Integer id);
+
+    //constructor expressions return detached customers, no persistence context entries or dirty-checking snapshots
+    @Query("SELECT new com.matay.customer.Customer(c.id, c.name, c.email, c.age) FROM Customer c")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAllCustomers();
+
+    @Query("SELECT new com.matay.customer.Customer(c.id, c.name, c.email, c.age) FROM Customer c ORDER BY c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAllCustomersOrderedById();
+
+    @Query("SELECT new com.matay.customer.Customer(c.id, c.name, c.email, c.age) FROM Customer c WHERE c.id = :id")
+    Optional<Customer> findCustomerById(@Param("id") Integer id);
+
+    @Query("SELECT new com.matay.customer.Customer(c.id, c.name, c.email, c.age) FROM Customer c WHERE c.id IN :ids")
+    List<Customer> findCustomersByIds(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("""
+            UPDATE Customer c
+            SET c.name = COALESCE(:name, c.name),
+                c.email = COALESCE(:email, c.email),
+                c.age = COALESCE(:age, c.age)
+            WHERE c.id = :id
+            """)
+    int updateCustomer(@Param("id") Integer id,
+                       @Param("name") String name,
+                       @Param("email") String email,
+                       @Param("age") Integer age);
+
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int deleteCustomerById(@Param("id") Integer id);
+
+    //deleted_at is not mapped, the entity's restriction hides stamped rows from every other query
+    @Modifying
+    @Query(value = "UPDATE customer SET deleted_at = now() WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteCustomerById(@Param("id") Integer id);
 }
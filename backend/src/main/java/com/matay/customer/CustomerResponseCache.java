@@ -0,0 +1,265 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matay.resilience.StaleCustomer;
+import com.matay.timing.RequestTiming;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-node cache of encoded single-customer responses, one entry per customer and representation, bounded by the
+ * total number of cached bytes. Hits are copied to the servlet response as they are, without Jackson.
+ * <p>
+ * Invalidation follows {@link CustomerNearCache}: local writes invalidate through the DAO, other nodes' writes
+ * through the {@code customer_changes} notifications, nothing is served while the listener is disconnected, and
+ * puts use the same epoch recheck so a response encoded from a stale read is dropped.
+ */
+@Component
+public class CustomerResponseCache implements CustomerChangeSubscriber, MeterBinder {
+
+    public enum Representation {
+        JSON(null), JSON_GZIP("gzip");
+
+        private final String contentEncoding;
+
+        Representation(String contentEncoding) {
+            this.contentEncoding = contentEncoding;
+        }
+
+        public static Representation of(HttpServletRequest request) {
+            return acceptsGzip(request) ? JSON_GZIP : JSON;
+        }
+
+        //gzip is acceptable with a non-zero q-value, named or through "*" (RFC 9110, 12.5.3)
+        static boolean acceptsGzip(HttpServletRequest request) {
+            Double gzip = null;
+            Double wildcard = null;
+            Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+            while (headers != null && headers.hasMoreElements()) {
+                for (String coding : headers.nextElement().split(",")) {
+                    String[] parts = coding.split(";");
+                    String name = parts[0].trim().toLowerCase(Locale.ROOT);
+                    double quality = quality(parts);
+                    if (name.equals("gzip") || name.equals("x-gzip")) {
+                        gzip = gzip == null ? quality : Math.max(gzip, quality);
+                    } else if (name.equals("*")) {
+                        wildcard = quality;
+                    }
+                }
+            }
+            Double accepted = gzip != null ? gzip : wildcard;
+            return accepted != null && accepted > 0;
+        }
+
+        private static double quality(String[] parameters) {
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * @param encodeNanos CPU time spent encoding the body, i.e. what each hit saves
+     */
+    public record EncodedResponse(Representation representation, byte[] body, long encodeNanos) {
+
+        public void writeTo(HttpServletResponse response) throws IOException {
+            RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+            try {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (representation.contentEncoding != null) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, representation.contentEncoding);
+                }
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            } finally {
+                RequestTiming.exit(previous);
+            }
+        }
+    }
+
+    private record Key(Integer id, Representation representation) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Key, EncodedResponse> responses;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private volatile boolean listening;
+
+    public CustomerResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${customer.response-cache.enabled:true}") boolean enabled,
+            @Value("${customer.response-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, EncodedResponse response) -> response.body().length)
+                .build();
+    }
+
+    public boolean isActive() {
+        return enabled && listening;
+    }
+
+    public long epoch() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the cached response, or {@code null} when it has to be encoded
+     */
+    public EncodedResponse get(Integer id, Representation representation) {
+        if (!isActive()) {
+            return null;
+        }
+        EncodedResponse cached = responses.getIfPresent(new Key(id, representation));
+        if (cached == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            savedNanos.add(cached.encodeNanos());
+        }
+        return cached;
+    }
+
+    /**
+     * Encodes {@code customer} and caches the result unless an invalidation happened since {@code epoch}. Customers
+     * served from the stale cache are only encoded.
+     */
+    public EncodedResponse put(long epoch, Customer customer, Representation representation) {
+        EncodedResponse response = encode(customer, representation);
+        if (isActive() && !(customer instanceof StaleCustomer)) {
+            Key key = new Key(customer.getId(), representation);
+            responses.put(key, response);
+            if (epoch != invalidations.get()) {
+                responses.invalidate(key);
+            }
+        }
+        return response;
+    }
+
+    public void invalidate(Integer id) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            for (Representation representation : Representation.values()) {
+                responses.invalidate(new Key(id, representation));
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getCpuSavedSeconds() {
+        return savedNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public long getCachedBytes() {
+        return responses.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    @Override
+    public void onChange(CustomerChangeEvent event) {
+        invalidate(event.customerId());
+    }
+
+    @Override
+    public void onResync() {
+        invalidateAll();
+        listening = true;
+    }
+
+    @Override
+    public void onDisconnect() {
+        listening = false;
+        invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.response-cache.hits", this, CustomerResponseCache::getHitCount)
+                .register(registry);
+        FunctionCounter.builder("customer.response-cache.misses", this, CustomerResponseCache::getMissCount)
+                .register(registry);
+        FunctionCounter.builder("customer.response-cache.cpu-saved", this, CustomerResponseCache::getCpuSavedSeconds)
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("customer.response-cache.size", this, CustomerResponseCache::getCachedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    private EncodedResponse encode(Customer customer, Representation representation) {
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+        long start = System.nanoTime();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(customer);
+            byte[] body = switch (representation) {
+                case JSON -> json;
+                case JSON_GZIP -> gzip(json);
+            };
+            return new EncodedResponse(representation, body, System.nanoTime() - start);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.matay.customer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Kinds of customer routes, used to give list calls, point reads, writes and file transfers their own budgets and
+ * deadlines.
+ */
+public enum CustomerRoute {
+    LIST, POINT_READ, WRITE, TRANSFER;
+
+    public static final String CUSTOMERS_PATH = "/api/v1/customers";
+
+    public static CustomerRoute of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (isFilePath(path)) {
+            return TRANSFER;
+        }
+        if (!"GET".equals(request.getMethod())) {
+            return WRITE;
+        }
+        return switch (path) {
+            case CUSTOMERS_PATH, CUSTOMERS_PATH + "/", CUSTOMERS_PATH + "/changes", CUSTOMERS_PATH + "/stream",
+                 CUSTOMERS_PATH + "/export" -> LIST;
+            default -> POINT_READ;
+        };
+    }
+
+    // /api/v1/customers/{customerId}/files[/{fileId}]
+    private static boolean isFilePath(String path) {
+        int idStart = CUSTOMERS_PATH.length() + 1;
+        if (!path.startsWith(CUSTOMERS_PATH + "/") || path.length() <= idStart) {
+            return false;
+        }
+        int idEnd = path.indexOf('/', idStart);
+        return idEnd > idStart && path.startsWith("/files", idEnd)
+                && (path.length() == idEnd + 6 || path.charAt(idEnd + 6) == '/');
+    }
+}
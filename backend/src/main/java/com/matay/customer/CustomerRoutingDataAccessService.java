@@ -0,0 +1,271 @@
+package com.matay.customer;
+
+import com.matay.exception.RequestValidationException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sends every call to the primary {@link CustomerDao}, which starts as {@code customer.dao.primary} and can be
+ * switched at runtime. While a shadow DAO is set, a sampled fraction of reads is replayed against it on a small
+ * bounded pool and its result compared with the one the primary returned. The shadow never touches the response:
+ * its failures are only counted, reads that do not fit the queue are dropped, and writes only go to the primary.
+ * <p>
+ * The shadow reads after the primary and outside the caller's transaction, so a write landing in between (or
+ * still uncommitted) shows up as a mismatch too; compare mismatch rates, not single mismatches.
+ */
+@Repository("routing")
+public class CustomerRoutingDataAccessService implements CustomerDao, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerRoutingDataAccessService.class);
+
+    //the stores that can serve as primary or shadow; decorators sit on top of this DAO and would loop back here,
+    //other CustomerDao beans (e.g. the in-memory list) are not a store of the real customers
+    private static final Set<String> STORES = Set.of("jdbc", "jpa", "sharded");
+
+    private final BeanFactory beanFactory;
+    private final CustomerNearCache customerNearCache;
+    private final CustomerResponseCache customerResponseCache;
+    private final ThreadPoolExecutor shadowExecutor;
+
+    private volatile Route primary;
+    private volatile Shadow shadow;
+
+    private final LongAdder compared = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder shadowErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder primaryNanos = new LongAdder();
+    private final LongAdder shadowNanos = new LongAdder();
+
+    private record Route(String name, CustomerDao dao) {
+    }
+
+    private record Shadow(String name, CustomerDao dao, double sampleRate) {
+    }
+
+    public CustomerRoutingDataAccessService(
+            BeanFactory beanFactory,
+            CustomerNearCache customerNearCache,
+            CustomerResponseCache customerResponseCache,
+            @Value("${customer.dao.primary:jdbc}") String primary,
+            @Value("${customer.dao.shadow.enabled:false}") boolean shadowEnabled,
+            @Value("${customer.dao.shadow.name:jpa}") String shadow,
+            @Value("${customer.dao.shadow.sample-rate:0.01}") double sampleRate,
+            @Value("${customer.dao.shadow.threads:2}") int threads,
+            @Value("${customer.dao.shadow.queue-size:1000}") int queueSize) {
+        this.beanFactory = beanFactory;
+        this.customerNearCache = customerNearCache;
+        this.customerResponseCache = customerResponseCache;
+        this.shadowExecutor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "customer-dao-shadow");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.primary = new Route(primary, lookup(primary));
+        if (shadowEnabled) {
+            startShadow(shadow, sampleRate);
+        }
+    }
+
+    public String getPrimaryName() {
+        return primary.name();
+    }
+
+    public synchronized CustomerDaoStatus switchPrimary(String name) {
+        CustomerDao dao = lookup(name);
+        if (name.equals(primary.name())) {
+            return status();
+        }
+        Shadow current = shadow;
+        if (current != null && current.name().equals(name)) {
+            throw new RequestValidationException("[%s] is the shadow DAO, stop shadowing first".formatted(name));
+        }
+        String previous = primary.name();
+        primary = new Route(name, dao);
+        //cached entries came from the previous store
+        customerNearCache.invalidateAll();
+        customerResponseCache.invalidateAll();
+        log.info("Switched customer DAO primary from {} to {}", previous, name);
+        return status();
+    }
+
+    public synchronized CustomerDaoStatus startShadow(String name, double sampleRate) {
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            throw new RequestValidationException("sampleRate must be greater than 0 and at most 1");
+        }
+        CustomerDao dao = lookup(name);
+        if (name.equals(primary.name())) {
+            throw new RequestValidationException("[%s] is already the primary DAO".formatted(name));
+        }
+        shadow = new Shadow(name, dao, sampleRate);
+        log.info("Shadowing {} of customer reads on {}", sampleRate, name);
+        return status();
+    }
+
+    public synchronized CustomerDaoStatus stopShadow() {
+        shadow = null;
+        return status();
+    }
+
+    public CustomerDaoStatus status() {
+        Shadow current = shadow;
+        long comparisons = compared.sum();
+        return new CustomerDaoStatus(
+                primary.name(),
+                current == null ? null : current.name(),
+                current == null ? 0 : current.sampleRate(),
+                comparisons,
+                mismatches.sum(),
+                shadowErrors.sum(),
+                dropped.sum(),
+                comparisons == 0 ? 0 : primaryNanos.sum() / comparisons / 1_000_000.0,
+                comparisons == 0 ? 0 : shadowNanos.sum() / comparisons / 1_000_000.0
+        );
+    }
+
+    private CustomerDao lookup(String name) {
+        if (!STORES.contains(name)
+                || !beanFactory.containsBean(name)
+                || !beanFactory.isTypeMatch(name, CustomerDao.class)) {
+            throw new RequestValidationException("[%s] is not a customer DAO".formatted(name));
+        }
+        return beanFactory.getBean(name, CustomerDao.class);
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return read("selectAllCustomers", CustomerDao::selectAllCustomers);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return read("selectCustomerById", dao -> dao.selectCustomerById(id));
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        return read("selectCustomersByIds", dao -> dao.selectCustomersByIds(ids));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        primary.dao().insertCustomer(customer);
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        primary.dao().insertCustomers(customers);
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return read("existsPersonWithEmail", dao -> dao.existsPersonWithEmail(email));
+    }
+
+    @Override
+    public boolean existPersonWithId(Integer id) {
+        return read("existPersonWithId", dao -> dao.existPersonWithId(id));
+    }
+
+    @Override
+    public void deleteCustomerById(Integer id) {
+        primary.dao().deleteCustomerById(id);
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        primary.dao().updateCustomer(updatedCustomer);
+    }
+
+    private <T> T read(String operation, Function<CustomerDao, T> read) {
+        CustomerDao dao = primary.dao();
+        Shadow current = shadow;
+        if (current == null || ThreadLocalRandom.current().nextDouble() >= current.sampleRate()) {
+            return read.apply(dao);
+        }
+
+        long start = System.nanoTime();
+        T result = read.apply(dao);
+        long elapsed = System.nanoTime() - start;
+        try {
+            shadowExecutor.execute(() -> compare(current, operation, read, result, elapsed));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+        return result;
+    }
+
+    private <T> void compare(Shadow shadow, String operation, Function<CustomerDao, T> read,
+                             T expected, long expectedNanos) {
+        long start = System.nanoTime();
+        T actual;
+        try {
+            actual = read.apply(shadow.dao());
+        } catch (RuntimeException e) {
+            shadowErrors.increment();
+            log.debug("Shadow {} failed {}", shadow.name(), operation, e);
+            return;
+        }
+        shadowNanos.add(System.nanoTime() - start);
+        primaryNanos.add(expectedNanos);
+        compared.increment();
+        if (!sameResult(expected, actual)) {
+            mismatches.increment();
+            log.debug("Shadow {} returned {} for {}, primary returned {}", shadow.name(), actual, operation, expected);
+        }
+    }
+
+    //stores do not agree on row order, so lists are compared as sets
+    static boolean sameResult(Object expected, Object actual) {
+        if (expected instanceof List<?> expectedRows && actual instanceof List<?> actualRows) {
+            return expectedRows.size() == actualRows.size()
+                    && new HashSet<>(expectedRows).equals(new HashSet<>(actualRows));
+        }
+        return Objects.equals(expected, actual);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        //bound to the adders rather than to getters, which would show up as DAO calls in flight recordings
+        FunctionCounter.builder("customer.dao.shadow.compared", compared, LongAdder::sum).register(registry);
+        FunctionCounter.builder("customer.dao.shadow.mismatches", mismatches, LongAdder::sum).register(registry);
+        FunctionCounter.builder("customer.dao.shadow.errors", shadowErrors, LongAdder::sum).register(registry);
+        FunctionCounter.builder("customer.dao.shadow.dropped", dropped, LongAdder::sum).register(registry);
+        //time spent by both sides on compared reads, divide by compared for the mean latency
+        FunctionCounter.builder("customer.dao.shadow.primary-time", primaryNanos, nanos -> nanos.sum() / 1e9)
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("customer.dao.shadow.shadow-time", shadowNanos, nanos -> nanos.sum() / 1e9)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shadowExecutor.shutdownNow();
+    }
+}
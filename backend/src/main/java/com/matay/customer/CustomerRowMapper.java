@@ -1,5 +1,6 @@
 package com.matay.customer;
 
+import com.matay.timing.RequestTiming;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
@@ -11,11 +12,16 @@ public class CustomerRowMapper implements RowMapper<Customer> {
 
     @Override
     public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer (
-                rs.getInt("id"),
-                rs.getString("name"),
-                rs.getString("email"),
-                rs.getInt("age")
-        );
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.MAPPING);
+        try {
+            return new Customer (
+                    rs.getInt("id"),
+                    rs.getString("name"),
+                    rs.getString("email"),
+                    rs.getInt("age")
+            );
+        } finally {
+            RequestTiming.exit(previous);
+        }
     }
 }
@@ -1,8 +1,11 @@
 package com.matay.customer;
 
+import com.matay.exception.DatabaseUnavailableException;
 import com.matay.exception.DuplicateResourceException;
 import com.matay.exception.RequestValidationException;
 import com.matay.exception.ResourceNotFoundException;
+import com.matay.heavyhitters.CustomerHeavyHitters;
+import com.matay.resilience.StaleCustomer;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +15,15 @@ import java.util.List;
 public class CustomerService {
 
     private final CustomerDao customerDao;
+    private final CustomerBatchLoader customerBatchLoader;
+    private final CustomerHeavyHitters customerHeavyHitters;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao) {
+    public CustomerService(@Qualifier("resilient") CustomerDao customerDao,
+                           CustomerBatchLoader customerBatchLoader,
+                           CustomerHeavyHitters customerHeavyHitters) {
         this.customerDao = customerDao;
+        this.customerBatchLoader = customerBatchLoader;
+        this.customerHeavyHitters = customerHeavyHitters;
     }
 
     public List<Customer> getAllCustomers() {
@@ -22,11 +31,19 @@ public class CustomerService {
     }
 
     public Customer getCustomerById(Integer id) {
-        return customerDao.selectCustomerById(id)
+        customerHeavyHitters.record(CustomerHeavyHitters.Operation.READ, id);
+        return findCustomerById(id);
+    }
+
+    private Customer findCustomerById(Integer id) {
+        return customerBatchLoader.load(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer with id [%s] not found".formatted(id)));
     }
 
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
+    /**
+     * @return the registered customer, with its generated id
+     */
+    public Customer addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
         //Check if email exist
         if (customerDao.existsPersonWithEmail(customerRegistrationRequest.email())) {
             throw new DuplicateResourceException(
@@ -40,9 +57,11 @@ public class CustomerService {
                 customerRegistrationRequest.age()
         );
         customerDao.insertCustomer(customer);
+        return customer;
     }
 
     public void deleteCustomerById(Integer id) {
+        customerHeavyHitters.record(CustomerHeavyHitters.Operation.DELETE, id);
         //check if user is present
         if (!customerDao.existPersonWithId(id)) {
             throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(id));
@@ -52,8 +71,14 @@ public class CustomerService {
     }
 
     public void updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
+        customerHeavyHitters.record(CustomerHeavyHitters.Operation.UPDATE, customerId);
         //check if user exists and save for changes
-        Customer customer = getCustomerById(customerId);
+        Customer customer = findCustomerById(customerId);
+        //comparing against or writing back a stale copy would report false no-ops or lose concurrent updates
+        if (customer instanceof StaleCustomer) {
+            throw new DatabaseUnavailableException(
+                    "Customer with id [%s] cannot be updated while the database is unavailable".formatted(customerId));
+        }
         boolean changes = false;
 
         //check name
@@ -0,0 +1,12 @@
+package com.matay.customer;
+
+import java.util.Map;
+
+public record CustomerStats(
+        long totalCustomers,
+        Integer minAge,
+        Integer maxAge,
+        Double averageAge,
+        Map<String, Long> ageHistogram
+) {
+}
@@ -0,0 +1,64 @@
+package com.matay.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the per-age counters kept in {@code customer_age_stats} by the triggers on {@code customer}.
+ */
+@Repository
+public class CustomerStatsDataAccessService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerStatsDataAccessService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<Integer, Long> selectAgeCounts() {
+        var sql = """
+                SELECT age, customer_count
+                FROM customer_age_stats
+                WHERE customer_count > 0
+                """;
+
+        Map<Integer, Long> ageCounts = new TreeMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            ageCounts.put(rs.getInt("age"), rs.getLong("customer_count"));
+        });
+        return ageCounts;
+    }
+
+    /**
+     * Rebuilds the counters from {@code customer}. The exclusive lock makes concurrent writers wait
+     * in their trigger until the rebuild commits, so no increment is lost or counted twice.
+     *
+     * @return number of age rows whose counter had drifted
+     */
+    @Transactional
+    public int reconcile() {
+        jdbcTemplate.execute("LOCK TABLE customer_age_stats IN EXCLUSIVE MODE");
+
+        var sql = """
+                WITH actual AS (
+                    SELECT age, count(*) AS customer_count FROM customer WHERE deleted_at IS NULL GROUP BY age
+                ), drift AS (
+                    SELECT coalesce(a.age, s.age) AS age, coalesce(a.customer_count, 0) AS customer_count
+                    FROM actual a
+                    FULL JOIN customer_age_stats s ON s.age = a.age
+                    WHERE s.customer_count IS DISTINCT FROM a.customer_count
+                      AND NOT (a.age IS NULL AND s.customer_count = 0)
+                )
+                INSERT INTO customer_age_stats(age, customer_count)
+                SELECT age, customer_count FROM drift
+                ON CONFLICT (age) DO UPDATE
+                SET customer_count = excluded.customer_count
+                """;
+
+        return jdbcTemplate.update(sql);
+    }
+}
@@ -0,0 +1,59 @@
+package com.matay.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class CustomerStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerStatsService.class);
+    private static final int BUCKET_WIDTH = 10;
+
+    private final CustomerStatsDataAccessService customerStatsDataAccessService;
+
+    public CustomerStatsService(CustomerStatsDataAccessService customerStatsDataAccessService) {
+        this.customerStatsDataAccessService = customerStatsDataAccessService;
+    }
+
+    public CustomerStats getStats() {
+        //counters come from the trigger maintained summary table, never from customer itself
+        Map<Integer, Long> ageCounts = customerStatsDataAccessService.selectAgeCounts();
+
+        long total = 0;
+        long ageSum = 0;
+        Integer minAge = null;
+        Integer maxAge = null;
+        Map<String, Long> histogram = new LinkedHashMap<>();
+
+        for (Map.Entry<Integer, Long> entry : ageCounts.entrySet()) {
+            int age = entry.getKey();
+            long count = entry.getValue();
+            total += count;
+            ageSum += age * count;
+            minAge = minAge == null ? age : Math.min(minAge, age);
+            maxAge = maxAge == null ? age : Math.max(maxAge, age);
+
+            int bucketStart = Math.floorDiv(age, BUCKET_WIDTH) * BUCKET_WIDTH;
+            histogram.merge("%s-%s".formatted(bucketStart, bucketStart + BUCKET_WIDTH - 1), count, Long::sum);
+        }
+
+        Double averageAge = total == 0 ? null : (double) ageSum / total;
+        return new CustomerStats(total, minAge, maxAge, averageAge, histogram);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${customer.stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${customer.stats.reconcile-interval-ms:600000}"
+    )
+    public void reconcile() {
+        int drifted = customerStatsDataAccessService.reconcile();
+        if (drifted > 0) {
+            log.warn("Customer stats reconciled, {} age counters had drifted", drifted);
+        }
+    }
+}
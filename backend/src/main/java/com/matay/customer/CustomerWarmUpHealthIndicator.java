@@ -0,0 +1,28 @@
+package com.matay.customer;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group, so load balancers only route to a node once its cache warm-up is over.
+ */
+@Component
+public class CustomerWarmUpHealthIndicator implements HealthIndicator {
+
+    private final CustomerWarmUpService customerWarmUpService;
+
+    public CustomerWarmUpHealthIndicator(CustomerWarmUpService customerWarmUpService) {
+        this.customerWarmUpService = customerWarmUpService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = customerWarmUpService.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("state", customerWarmUpService.getState())
+                .withDetail("warmed", customerWarmUpService.getWarmedCount())
+                .withDetail("timingsMillis", customerWarmUpService.getTimingsMillis())
+                .build();
+    }
+}
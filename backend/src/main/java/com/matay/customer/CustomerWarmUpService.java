@@ -0,0 +1,287 @@
+package com.matay.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-warms the near-cache once the application has started, loading the hot set in parallel chunks.
+ * The node reports ready (see {@link CustomerWarmUpHealthIndicator}) when warm-up finishes or its time budget
+ * runs out, whichever comes first.
+ * <p>
+ * The hot set comes from {@code customer_hot_key}, which every node refreshes with its most used ids, falling back
+ * to the most recently written customers. With {@code source: all} the whole table is loaded with the parallel
+ * range scan instead.
+ * <p>
+ * Warm-up is skipped when the near-cache is disabled or the change stream that keeps it active is off.
+ */
+@Service
+public class CustomerWarmUpService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerWarmUpService.class);
+
+    public enum State {
+        PENDING, WARMING, DONE, BUDGET_EXCEEDED, FAILED, DISABLED
+    }
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final CustomerHotKeyDataAccessService hotKeyDao;
+    private final CustomerNearCache customerNearCache;
+    private final boolean enabled;
+    private final boolean changeStreamEnabled;
+    private final String source;
+    private final int maxKeys;
+    private final int workers;
+    private final int chunkSize;
+    private final Duration budget;
+    private final Duration hotKeyRetention;
+
+    private final Map<String, Long> timingsMillis = new LinkedHashMap<>();
+    private volatile State state = State.PENDING;
+    private volatile long deadlineNanos = Long.MAX_VALUE;
+    private volatile int warmed;
+
+    public CustomerWarmUpService(
+            CustomerJDBCDataAccessService customerDao,
+            CustomerHotKeyDataAccessService hotKeyDao,
+            CustomerNearCache customerNearCache,
+            @Value("${customer.warm-up.enabled:true}") boolean enabled,
+            @Value("${customer.stream.enabled:true}") boolean changeStreamEnabled,
+            @Value("${customer.warm-up.source:hot-keys}") String source,
+            @Value("${customer.warm-up.max-keys:10000}") int maxKeys,
+            @Value("${customer.warm-up.workers:4}") int workers,
+            @Value("${customer.warm-up.chunk-size:500}") int chunkSize,
+            @Value("${customer.warm-up.budget:30s}") Duration budget,
+            @Value("${customer.warm-up.hot-key-retention:24h}") Duration hotKeyRetention) {
+        this.customerDao = customerDao;
+        this.hotKeyDao = hotKeyDao;
+        this.customerNearCache = customerNearCache;
+        this.enabled = enabled;
+        this.changeStreamEnabled = changeStreamEnabled;
+        this.source = source;
+        this.maxKeys = maxKeys;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.budget = budget;
+        this.hotKeyRetention = hotKeyRetention;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (event.getTimeTaken() != null) {
+            record("context", event.getTimeTaken().toMillis());
+        }
+        //without the listener the near-cache never becomes active and every put would be dropped
+        if (!enabled || !customerNearCache.isEnabled() || !changeStreamEnabled) {
+            state = State.DISABLED;
+            return;
+        }
+        deadlineNanos = System.nanoTime() + budget.toNanos();
+        state = State.WARMING;
+        Thread thread = new Thread(this::warmUp, "customer-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isReady() {
+        if (state == State.WARMING && System.nanoTime() - deadlineNanos > 0) {
+            state = State.BUDGET_EXCEEDED;
+        }
+        return state != State.PENDING && state != State.WARMING;
+    }
+
+    public State getState() {
+        isReady();
+        return state;
+    }
+
+    public int getWarmedCount() {
+        return warmed;
+    }
+
+    public synchronized Map<String, Long> getTimingsMillis() {
+        return new LinkedHashMap<>(timingsMillis);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${customer.warm-up.hot-key-persist-interval-ms:300000}",
+            initialDelayString = "${customer.warm-up.hot-key-persist-interval-ms:300000}"
+    )
+    public void persistHotKeys() {
+        if (!customerNearCache.isActive()) {
+            return;
+        }
+        List<Integer> hottest = customerNearCache.hottestIds(maxKeys);
+        if (!hottest.isEmpty()) {
+            hotKeyDao.saveHotKeys(hottest, hotKeyRetention);
+        }
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            //puts are ignored until the near-cache listener is connected
+            while (!customerNearCache.isActive()) {
+                checkBudget();
+                Thread.sleep(50);
+            }
+            start = lap("listener", start);
+
+            if ("all".equals(source)) {
+                loadAll();
+                lap("load", start);
+            } else {
+                List<Integer> ids = "recency".equals(source) ? List.of() : hotKeyDao.selectHotKeys(maxKeys);
+                if (ids.isEmpty()) {
+                    ids = hotKeyDao.selectRecentlyChangedIds(maxKeys);
+                }
+                start = lap("hot-keys", start);
+                loadChunks(ids);
+                lap("load", start);
+            }
+            finish(State.DONE);
+        } catch (CancellationException e) {
+            finish(State.BUDGET_EXCEEDED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(State.FAILED);
+        } catch (RuntimeException e) {
+            log.warn("Customer cache warm-up failed", e);
+            finish(State.FAILED);
+        }
+    }
+
+    private void loadChunks(List<Integer> ids) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "customer-warm-up-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger loaded = new AtomicInteger();
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                chunks.add(executor.submit(() -> loaded.addAndGet(loadChunk(chunk))));
+            }
+            for (Future<?> chunk : chunks) {
+                try {
+                    chunk.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    throw new CancellationException();
+                } catch (ExecutionException e) {
+                    log.warn("Customer cache warm-up chunk failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            warmed = loaded.get();
+        }
+    }
+
+    private int loadChunk(List<Integer> ids) {
+        long epoch = customerNearCache.epoch();
+        Map<Integer, Customer> found = customerDao.selectCustomersByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        int loaded = 0;
+        for (Integer id : ids) {
+            if (customerNearCache.putCustomer(epoch, id, Optional.ofNullable(found.get(id))) && found.containsKey(id)) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void loadAll() {
+        //the scan reads one snapshot taken before its first row, so its rows are only as fresh as this epoch
+        long epoch = customerNearCache.epoch();
+        List<Customer> chunk = new ArrayList<>(chunkSize);
+        AtomicInteger scanned = new AtomicInteger();
+        AtomicInteger loaded = new AtomicInteger();
+        try {
+            try {
+                customerDao.scanAllCustomers(workers, false, customer -> {
+                    if (scanned.get() >= maxKeys) {
+                        throw new CancellationException();
+                    }
+                    checkBudget();
+                    scanned.incrementAndGet();
+                    chunk.add(customer);
+                    if (chunk.size() >= chunkSize) {
+                        loaded.addAndGet(loadScanned(epoch, chunk));
+                        chunk.clear();
+                    }
+                });
+            } catch (CancellationException e) {
+                if (scanned.get() < maxKeys) {
+                    throw e;
+                }
+            }
+            loaded.addAndGet(loadScanned(epoch, chunk));
+        } finally {
+            warmed = loaded.get();
+        }
+    }
+
+    //once anything was invalidated the snapshot may be stale, later chunks are read again under a fresh epoch
+    private int loadScanned(long epoch, List<Customer> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        if (customerNearCache.epoch() != epoch) {
+            return loadChunk(chunk.stream().map(Customer::getId).toList());
+        }
+        int loaded = 0;
+        for (Customer customer : chunk) {
+            if (customerNearCache.putCustomer(epoch, customer.getId(), Optional.of(customer))) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void checkBudget() {
+        if (System.nanoTime() - deadlineNanos > 0) {
+            throw new CancellationException();
+        }
+    }
+
+    private long lap(String phase, long since) {
+        long now = System.nanoTime();
+        record(phase, TimeUnit.NANOSECONDS.toMillis(now - since));
+        return now;
+    }
+
+    private synchronized void record(String phase, long millis) {
+        timingsMillis.put(phase, millis);
+    }
+
+    private void finish(State result) {
+        if (state == State.WARMING) {
+            state = result;
+        }
+        log.info("Customer cache warm-up {}: {} customers, timings (ms) {}", result, warmed, getTimingsMillis());
+    }
+}
@@ -0,0 +1,88 @@
+package com.matay.dataset;
+
+import com.github.javafaker.Faker;
+import com.github.javafaker.Name;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates customers as CSV rows ({@code name,email,age}), in chunks that can be produced on any thread in any
+ * order. Each chunk reseeds its random source from the dataset seed and the chunk index, so the same settings
+ * always produce the same rows. Emails embed the row index and are therefore unique.
+ */
+public class CustomerDatasetGenerator {
+
+    private final DatasetProperties properties;
+    //building a Faker loads its locale files, so every thread keeps one and reseeds its Random per chunk
+    private final ThreadLocal<SeededFaker> fakers =
+            ThreadLocal.withInitial(() -> new SeededFaker(new Random()));
+
+    public CustomerDatasetGenerator(DatasetProperties properties) {
+        if (properties.minAge() > properties.maxAge()) {
+            throw new IllegalArgumentException("dataset.min-age must not exceed dataset.max-age");
+        }
+        this.properties = properties;
+    }
+
+    public long chunkCount() {
+        return (properties.count() + properties.chunkSize() - 1) / properties.chunkSize();
+    }
+
+    public void writeChunk(long chunk, Appendable out) throws IOException {
+        long from = chunk * properties.chunkSize();
+        long to = Math.min(properties.count(), from + properties.chunkSize());
+
+        SeededFaker seededFaker = fakers.get();
+        Random random = seededFaker.random();
+        random.setSeed(mix(properties.seed(), chunk));
+        for (long row = from; row < to; row++) {
+            Name name = seededFaker.faker().name();
+            String firstName = name.firstName();
+            String lastName = name.lastName();
+            String email = "%s.%s.%d@%s".formatted(
+                    localPart(firstName), localPart(lastName), row, properties.emailDomain()
+            );
+
+            out.append(quote(firstName + " " + lastName)).append(',')
+                    .append(quote(email)).append(',')
+                    .append(Integer.toString(age(random)))
+                    .append('\n');
+        }
+    }
+
+    private int age(Random random) {
+        int min = properties.minAge();
+        int max = properties.maxAge();
+        return switch (properties.ageDistribution()) {
+            case UNIFORM -> min + random.nextInt(max - min + 1);
+            case NORMAL -> {
+                long age = Math.round(properties.ageMean() + random.nextGaussian() * properties.ageStdDev());
+                yield (int) Math.max(min, Math.min(max, age));
+            }
+        };
+    }
+
+    private static String localPart(String value) {
+        return value.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static long mix(long seed, long chunk) {
+        //splitmix64 finaliser, so neighbouring chunks get unrelated seeds
+        long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record SeededFaker(Random random, Faker faker) {
+        SeededFaker(Random random) {
+            this(random, new Faker(Locale.ENGLISH, random));
+        }
+    }
+}
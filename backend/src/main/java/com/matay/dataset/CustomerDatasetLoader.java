@@ -0,0 +1,173 @@
+package com.matay.dataset;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Loads a synthetic customer dataset and exits, e.g.
+ * {@code java -jar app.jar --spring.profiles.active=dataset --dataset.count=5000000}.
+ * <p>
+ * Chunks are generated and streamed into Postgres with {@code COPY} on {@code dataset.workers} connections in
+ * parallel. With {@code dataset.file} the rows go to a CSV file instead (gzipped when it ends in {@code .gz}), in
+ * chunk order, so the file is byte-for-byte reproducible; {@code dataset.replay} loads such a file.
+ * Every row still fires the customer triggers, so stats and the change feed stay consistent.
+ */
+@Component
+@Profile("dataset")
+public class CustomerDatasetLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerDatasetLoader.class);
+    private static final String COPY_SQL = "COPY customer(name, email, age) FROM STDIN WITH (FORMAT csv)";
+
+    private final DatasetProperties properties;
+    private final DataSource dataSource;
+    private final ConfigurableApplicationContext context;
+
+    public CustomerDatasetLoader(DatasetProperties properties,
+                                 DataSource dataSource,
+                                 ConfigurableApplicationContext context) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        long rows;
+        if (properties.replay() != null) {
+            rows = replay(Path.of(properties.replay()));
+        } else if (properties.file() != null) {
+            rows = writeFile(new CustomerDatasetGenerator(properties), Path.of(properties.file()));
+        } else {
+            rows = copyIntoPostgres(new CustomerDatasetGenerator(properties));
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Dataset done: {} rows in {} ms ({} rows/s)", rows, millis, rows * 1000 / millis);
+
+        System.exit(SpringApplication.exit(context));
+    }
+
+    long copyIntoPostgres(CustomerDatasetGenerator generator) throws Exception {
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (long chunk = 0; chunk < generator.chunkCount(); chunk++) {
+                long index = chunk;
+                chunks.add(executor.submit(() -> {
+                    StringBuilder csv = new StringBuilder(properties.chunkSize() * 64);
+                    generator.writeChunk(index, csv);
+                    return copy(new StringReader(csv.toString()));
+                }));
+            }
+            long rows = 0;
+            for (Future<Long> chunk : chunks) {
+                rows += get(chunk);
+            }
+            return rows;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    long writeFile(CustomerDatasetGenerator generator, Path file) throws Exception {
+        ExecutorService executor = newExecutor();
+        //chunks are generated ahead in parallel but written strictly in order
+        Deque<Future<String>> window = new ArrayDeque<>();
+        long chunks = generator.chunkCount();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(open(file), StandardCharsets.UTF_8))) {
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long index = chunk;
+                window.add(executor.submit(() -> {
+                    StringBuilder csv = new StringBuilder(properties.chunkSize() * 64);
+                    generator.writeChunk(index, csv);
+                    return csv.toString();
+                }));
+                if (window.size() >= properties.workers() * 2) {
+                    writer.write(get(window.poll()));
+                }
+            }
+            while (!window.isEmpty()) {
+                writer.write(get(window.poll()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return properties.count();
+    }
+
+    long replay(Path file) throws IOException, SQLException {
+        InputStream in = Files.newInputStream(file);
+        if (file.toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return copy(reader);
+        }
+    }
+
+    private long copy(Reader csv) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, csv);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        return Executors.newFixedThreadPool(Math.max(1, properties.workers()), runnable -> {
+            Thread thread = new Thread(runnable, "customer-dataset");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static OutputStream open(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return file.toString().endsWith(".gz") ? new GZIPOutputStream(out, 1 << 16) : out;
+    }
+
+    private static <T> T get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.matay.dataset;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the synthetic customer generator (the {@code dataset} profile).
+ * Rows are loaded straight into Postgres unless {@code file} is set; {@code replay} loads a previously written file.
+ */
+@ConfigurationProperties(prefix = "dataset")
+public record DatasetProperties(
+        @DefaultValue("1000000") long count,
+        @DefaultValue("42") long seed,
+        @DefaultValue("4") int workers,
+        @DefaultValue("10000") int chunkSize,
+        @DefaultValue("NORMAL") AgeDistribution ageDistribution,
+        @DefaultValue("16") int minAge,
+        @DefaultValue("90") int maxAge,
+        @DefaultValue("40") double ageMean,
+        @DefaultValue("15") double ageStdDev,
+        @DefaultValue("example.com") String emailDomain,
+        String file,
+        String replay
+) {
+    public enum AgeDistribution {
+        UNIFORM, NORMAL
+    }
+}
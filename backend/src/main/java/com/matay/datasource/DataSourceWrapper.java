@@ -0,0 +1,14 @@
+package com.matay.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * Decorates the connection pools. Every wrapper bean is applied by {@link DataSourceWrappers}, to the
+ * {@link DataSource} beans and to the shard pools alike, in {@link org.springframework.core.annotation.Order}:
+ * the lowest order ends up closest to the pool.
+ */
+@FunctionalInterface
+public interface DataSourceWrapper {
+
+    DataSource wrap(DataSource dataSource);
+}
@@ -0,0 +1,31 @@
+package com.matay.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceWrapperConfig {
+
+    @Bean
+    DataSourceWrappers dataSourceWrappers(ObjectProvider<DataSourceWrapper> wrappers) {
+        return new DataSourceWrappers(wrappers.orderedStream().toList());
+    }
+
+    //the chain is looked up on first use, by then every wrapper bean is registered
+    @Bean
+    static BeanPostProcessor dataSourceWrapperPostProcessor(ObjectProvider<DataSourceWrappers> wrappers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return wrappers.getObject().wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
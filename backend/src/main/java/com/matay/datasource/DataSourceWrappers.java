@@ -0,0 +1,24 @@
+package com.matay.datasource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The ordered chain of {@link DataSourceWrapper}s, for pools that are created outside the application context.
+ */
+public class DataSourceWrappers {
+
+    private final List<DataSourceWrapper> wrappers;
+
+    public DataSourceWrappers(List<DataSourceWrapper> wrappers) {
+        this.wrappers = List.copyOf(wrappers);
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        DataSource wrapped = dataSource;
+        for (DataSourceWrapper wrapper : wrappers) {
+            wrapped = wrapper.wrap(wrapped);
+        }
+        return wrapped;
+    }
+}
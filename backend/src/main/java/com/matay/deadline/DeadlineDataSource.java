@@ -0,0 +1,68 @@
+package com.matay.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link RequestDeadline} to everything that goes through the pool, so the JDBC and the JPA DAO
+ * behave the same: an expired request never borrows a connection, and every statement created for a request
+ * gets the remaining time as query timeout. JDBC timeouts have whole-second granularity, so it is rounded up.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        RequestDeadline.checkNotExpired();
+        return proxy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        RequestDeadline.checkNotExpired();
+        return proxy(super.getConnection(username, password));
+    }
+
+    private static Connection proxy(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                DeadlineDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new DeadlineConnectionHandler(connection)
+        );
+    }
+
+    private record DeadlineConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement statement && RequestDeadline.isSet()) {
+                long remaining = RequestDeadline.remainingNanos();
+                if (remaining <= 0) {
+                    statement.close();
+                    throw RequestDeadline.exceeded();
+                }
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L));
+                statement.setQueryTimeout((int) Math.min(seconds, Integer.MAX_VALUE));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.matay.deadline;
+
+import com.matay.datasource.DataSourceWrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class DeadlineDataSourceConfig {
+
+    //outermost, an expired request is turned away before anything else is measured or borrowed
+    @Bean
+    @Order(3)
+    DataSourceWrapper deadlineDataSourceWrapper() {
+        return DeadlineDataSource::new;
+    }
+}
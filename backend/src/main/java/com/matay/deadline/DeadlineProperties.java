@@ -0,0 +1,17 @@
+package com.matay.deadline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.deadline")
+public record DeadlineProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Request-Timeout-Ms") String header,
+        @DefaultValue("10s") Duration list,
+        @DefaultValue("2s") Duration pointRead,
+        @DefaultValue("5s") Duration write,
+        @DefaultValue("30s") Duration max
+) {
+}
@@ -0,0 +1,78 @@
+package com.matay.deadline;
+
+import com.matay.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deadline of the request handled by the current thread. It is set by {@link RequestDeadlineFilter} and read
+ * wherever work can be cut short: before a connection is taken, as statement timeout and while waiting
+ * on shared work.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+    private static final LongAdder EXCEEDED = new LongAdder();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(Duration timeout) {
+        DEADLINE_NANOS.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Sets the deadline as a {@link System#nanoTime()} value, or clears it for {@code null}. Used to carry a
+     * deadline from {@link #get()} over to another thread.
+     */
+    public static void setAt(Long deadlineNanos) {
+        if (deadlineNanos == null) {
+            DEADLINE_NANOS.remove();
+        } else {
+            DEADLINE_NANOS.set(deadlineNanos);
+        }
+    }
+
+    /**
+     * @return the deadline as a {@link System#nanoTime()} value, {@code null} when there is none
+     */
+    public static Long get() {
+        return DEADLINE_NANOS.get();
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    /**
+     * @return nanos left until the deadline, {@link Long#MAX_VALUE} when there is none
+     */
+    public static long remainingNanos() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    public static boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public static void checkNotExpired() {
+        if (isExpired()) {
+            throw exceeded();
+        }
+    }
+
+    public static DeadlineExceededException exceeded() {
+        EXCEEDED.increment();
+        return new DeadlineExceededException("Request deadline exceeded");
+    }
+
+    public static long getExceededCount() {
+        return EXCEEDED.sum();
+    }
+}
@@ -0,0 +1,83 @@
+package com.matay.deadline;
+
+import com.matay.customer.CustomerRoute;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Starts the deadline of every customer request: the per-route default, or the timeout asked for in the
+ * request header, capped at the configured maximum.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final DeadlineProperties properties;
+
+    public RequestDeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !properties.enabled() || !path.startsWith(CustomerRoute.CUSTOMERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Duration timeout = timeoutOf(request);
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestDeadline.set(timeout);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    /**
+     * @return the request's timeout, or {@code null} when it runs without a deadline
+     */
+    Duration timeoutOf(HttpServletRequest request) {
+        String requested = request.getHeader(properties.header());
+        if (requested != null) {
+            try {
+                long millis = Long.parseLong(requested.trim());
+                if (millis > 0) {
+                    Duration timeout = Duration.ofMillis(millis);
+                    return timeout.compareTo(properties.max()) > 0 ? properties.max() : timeout;
+                }
+            } catch (NumberFormatException e) {
+                //fall back to the route default
+            }
+        }
+        return switch (CustomerRoute.of(request)) {
+            case LIST -> properties.list();
+            case POINT_READ -> properties.pointRead();
+            case WRITE -> properties.write();
+            //file bodies move at the client's pace, a deadline would only fail the statements after a slow upload
+            case TRANSFER -> null;
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.deadline.exceeded", RequestDeadline.class, c -> RequestDeadline.getExceededCount())
+                .register(registry);
+    }
+}
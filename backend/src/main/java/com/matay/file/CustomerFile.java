@@ -0,0 +1,25 @@
+package com.matay.file;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CustomerFile(
+        Long id,
+        Integer customerId,
+        @JsonIgnore UUID storageKey,
+        String name,
+        String contentType,
+        long size,
+        String sha256,
+        Instant createdAt
+) {
+
+    /**
+     * Strong validator of the content, which never changes once uploaded.
+     */
+    public String etag() {
+        return "\"" + sha256 + "\"";
+    }
+}
@@ -0,0 +1,159 @@
+package com.matay.file;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/customers/{customerId}/files")
+public class CustomerFileController {
+
+    //request attributes through which Tomcat takes over writing a file with sendfile once the servlet returns
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CustomerFileService customerFileService;
+
+    public CustomerFileController(CustomerFileService customerFileService) {
+        this.customerFileService = customerFileService;
+    }
+
+    //the body is the file itself, form bodies are refused as reading the name parameter would consume them
+    @PostMapping(consumes = "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public CustomerFile uploadFile(@PathVariable("customerId") Integer customerId,
+                                   @RequestParam("name") String name,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException, HttpMediaTypeNotSupportedException {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } else if (MediaType.MULTIPART_FORM_DATA.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            throw new HttpMediaTypeNotSupportedException("Upload the file as the request body instead of multipart");
+        }
+
+        CustomerFile file = customerFileService.upload(
+                customerId, name, contentType, request.getContentLengthLong(), request.getInputStream());
+        response.setHeader(HttpHeaders.LOCATION, ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{fileId}")
+                .buildAndExpand(file.id())
+                .toUriString());
+        return file;
+    }
+
+    @GetMapping
+    public List<CustomerFile> getFiles(@PathVariable("customerId") Integer customerId) {
+        return customerFileService.getFiles(customerId);
+    }
+
+    @GetMapping("{fileId}")
+    public void downloadFile(@PathVariable("customerId") Integer customerId,
+                             @PathVariable("fileId") Long fileId,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        CustomerFile file = customerFileService.getFile(customerId, fileId);
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag())) {
+            return;
+        }
+
+        long length = file.size();
+        long start = 0;
+        long end = length;
+        HttpRange range = requestedRange(request, file);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            if (length == 0 || start >= end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes %d-%d/%d".formatted(start, end - 1, length));
+        }
+
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(end - start);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        //the stored content type comes from the uploader, browsers must not guess a more dangerous one
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.name(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        if ("HEAD".equals(request.getMethod()) || start == end) {
+            return;
+        }
+
+        Path content = customerFileService.getContent(file);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, content.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        transfer(content, start, end, response);
+    }
+
+    @DeleteMapping("{fileId}")
+    public void deleteFile(@PathVariable("customerId") Integer customerId,
+                           @PathVariable("fileId") Long fileId) {
+        customerFileService.deleteFile(customerId, fileId);
+    }
+
+    /**
+     * @return the single range to serve, or {@code null} for the whole file. Unparseable and multiple ranges, and
+     * ranges conditional on an older version ({@code If-Range}), fall back to the whole file.
+     */
+    static HttpRange requestedRange(HttpServletRequest request, CustomerFile file) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(file.etag())) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    //without sendfile the range is copied through a small transfer buffer, never the whole file
+    private static void transfer(Path content, long start, long end, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(content)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, out);
+                if (transferred <= 0) {
+                    //the blob is shorter than its recorded size, the response cannot be completed
+                    throw new EOFException("File ended at byte %d of %d".formatted(position, end));
+                }
+                position += transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.matay.file;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * File metadata in {@code customer_file}. Files of soft deleted customers are hidden, purging the customer
+ * removes the rows with it and the blobs are swept as orphans afterwards.
+ */
+@Repository
+public class CustomerFileDataAccessService {
+
+    private static final RowMapper<CustomerFile> ROW_MAPPER = (rs, rowNum) -> new CustomerFile(
+            rs.getLong("id"),
+            rs.getInt("customer_id"),
+            rs.getObject("storage_key", UUID.class),
+            rs.getString("name"),
+            rs.getString("content_type"),
+            rs.getLong("size"),
+            rs.getString("sha256"),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerFileDataAccessService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean existsCustomer(Integer customerId) {
+        var sql = """
+                SELECT count(id)
+                FROM customer
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                """;
+
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, customerId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * @return the stored file, or empty when the customer does not exist (anymore)
+     */
+    public Optional<CustomerFile> insertFile(Integer customerId, UUID storageKey, String name, String contentType,
+                                             long size, String sha256) {
+        var sql = """
+                INSERT INTO customer_file(customer_id, storage_key, name, content_type, size, sha256)
+                SELECT id, ?, ?, ?, ?, ?
+                FROM customer
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                RETURNING id, customer_id, storage_key, name, content_type, size, sha256, created_at
+                """;
+
+        return jdbcTemplate.query(sql, ROW_MAPPER, storageKey, name, contentType, size, sha256, customerId)
+                .stream()
+                .findFirst();
+    }
+
+    public List<CustomerFile> selectFiles(Integer customerId) {
+        var sql = """
+                SELECT f.id, f.customer_id, f.storage_key, f.name, f.content_type, f.size, f.sha256, f.created_at
+                FROM customer_file f
+                JOIN customer c ON c.id = f.customer_id
+                WHERE f.customer_id = ?
+                  AND c.deleted_at IS NULL
+                ORDER BY f.id
+                """;
+
+        return jdbcTemplate.query(sql, ROW_MAPPER, customerId);
+    }
+
+    public Optional<CustomerFile> selectFile(Integer customerId, Long fileId) {
+        var sql = """
+                SELECT f.id, f.customer_id, f.storage_key, f.name, f.content_type, f.size, f.sha256, f.created_at
+                FROM customer_file f
+                JOIN customer c ON c.id = f.customer_id
+                WHERE f.id = ?
+                  AND f.customer_id = ?
+                  AND c.deleted_at IS NULL
+                """;
+
+        return jdbcTemplate.query(sql, ROW_MAPPER, fileId, customerId).stream().findFirst();
+    }
+
+    /**
+     * @return the storage key of the deleted file, or empty when there was none
+     */
+    public Optional<UUID> deleteFile(Integer customerId, Long fileId) {
+        var sql = """
+                DELETE FROM customer_file f
+                USING customer c
+                WHERE f.id = ?
+                  AND f.customer_id = ?
+                  AND c.id = f.customer_id
+                  AND c.deleted_at IS NULL
+                RETURNING f.storage_key
+                """;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject(1, UUID.class), fileId, customerId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * @return those of {@code storageKeys} that still belong to a file
+     */
+    public Set<UUID> selectExistingStorageKeys(Collection<UUID> storageKeys) {
+        var sql = """
+                SELECT storage_key
+                FROM customer_file
+                WHERE storage_key = ANY (?)
+                """;
+
+        return new HashSet<>(jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", storageKeys.toArray())),
+                (rs, rowNum) -> rs.getObject(1, UUID.class)
+        ));
+    }
+}
@@ -0,0 +1,16 @@
+package com.matay.file;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.files")
+public record CustomerFileProperties(
+        @DefaultValue("data/files") Path root,
+        @DefaultValue("1GB") DataSize maxSize,
+        @DefaultValue("1h") Duration orphanGrace
+) {
+}
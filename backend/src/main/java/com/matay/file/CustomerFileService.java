@@ -0,0 +1,163 @@
+package com.matay.file;
+
+import com.matay.exception.PayloadTooLargeException;
+import com.matay.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class CustomerFileService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerFileService.class);
+    private static final int SWEEP_BATCH_SIZE = 1000;
+
+    private final CustomerFileDataAccessService customerFileDataAccessService;
+    private final LocalBlobStore localBlobStore;
+    private final CustomerFileProperties properties;
+
+    public CustomerFileService(CustomerFileDataAccessService customerFileDataAccessService,
+                               LocalBlobStore localBlobStore,
+                               CustomerFileProperties properties) {
+        this.customerFileDataAccessService = customerFileDataAccessService;
+        this.localBlobStore = localBlobStore;
+        this.properties = properties;
+    }
+
+    /**
+     * Streams {@code content} to disk first and records the metadata afterwards, so no connection is held while
+     * the body arrives. A blob whose row never gets written is removed again, or swept as an orphan.
+     */
+    public CustomerFile upload(Integer customerId, String name, String contentType, long contentLength,
+                               InputStream content) throws IOException {
+        long maxBytes = properties.maxSize().toBytes();
+        if (contentLength > maxBytes) {
+            throw new PayloadTooLargeException("File is larger than %s bytes".formatted(maxBytes));
+        }
+        //fail before reading the body
+        requireCustomer(customerId);
+
+        UUID storageKey = UUID.randomUUID();
+        LocalBlobStore.Blob blob = localBlobStore.write(storageKey, content, maxBytes);
+        try {
+            return customerFileDataAccessService
+                    .insertFile(customerId, storageKey, name, contentType, blob.size(), blob.sha256())
+                    .orElseThrow(() -> customerNotFound(customerId));
+        } catch (RuntimeException e) {
+            localBlobStore.delete(storageKey);
+            throw e;
+        }
+    }
+
+    public List<CustomerFile> getFiles(Integer customerId) {
+        requireCustomer(customerId);
+        return customerFileDataAccessService.selectFiles(customerId);
+    }
+
+    public CustomerFile getFile(Integer customerId, Long fileId) {
+        return customerFileDataAccessService.selectFile(customerId, fileId)
+                .orElseThrow(() -> fileNotFound(customerId, fileId));
+    }
+
+    public Path getContent(CustomerFile file) {
+        Path path = localBlobStore.path(file.storageKey());
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException("Content of file [%s] is missing".formatted(file.id()));
+        }
+        return path;
+    }
+
+    public void deleteFile(Integer customerId, Long fileId) {
+        UUID storageKey = customerFileDataAccessService.deleteFile(customerId, fileId)
+                .orElseThrow(() -> fileNotFound(customerId, fileId));
+        localBlobStore.delete(storageKey);
+    }
+
+    //blobs of purged customers, failed inserts and aborted uploads
+    @Scheduled(
+            fixedDelayString = "${customer.files.sweep-interval-ms:3600000}",
+            initialDelayString = "${customer.files.sweep-interval-ms:3600000}"
+    )
+    public void sweepOrphans() {
+        try {
+            int removed = sweepOrphans(Instant.now().minus(properties.orphanGrace()));
+            if (removed > 0) {
+                log.info("Removed {} orphaned customer files", removed);
+            }
+        } catch (IOException e) {
+            log.warn("Sweeping orphaned customer files failed", e);
+        }
+    }
+
+    /**
+     * Removes blobs last modified before {@code before} that no file refers to. The grace period keeps uploads
+     * still waiting for their row out of reach.
+     */
+    int sweepOrphans(Instant before) throws IOException {
+        Map<UUID, Path> candidates = new HashMap<>();
+        int[] removed = {0};
+        localBlobStore.forEachBlob(before, (storageKey, path) -> {
+            if (storageKey == null) {
+                removed[0] += deleteQuietly(path);
+                return;
+            }
+            candidates.put(storageKey, path);
+            if (candidates.size() == SWEEP_BATCH_SIZE) {
+                removed[0] += removeUnreferenced(candidates);
+            }
+        });
+        removed[0] += removeUnreferenced(candidates);
+        return removed[0];
+    }
+
+    private int removeUnreferenced(Map<UUID, Path> candidates) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<UUID> existing = customerFileDataAccessService.selectExistingStorageKeys(candidates.keySet());
+        int removed = 0;
+        for (Map.Entry<UUID, Path> candidate : candidates.entrySet()) {
+            if (!existing.contains(candidate.getKey())) {
+                removed += deleteQuietly(candidate.getValue());
+            }
+        }
+        candidates.clear();
+        return removed;
+    }
+
+    private static int deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path) ? 1 : 0;
+        } catch (IOException e) {
+            log.warn("Could not remove {}", path, e);
+            return 0;
+        }
+    }
+
+    private void requireCustomer(Integer customerId) {
+        if (!customerFileDataAccessService.existsCustomer(customerId)) {
+            throw customerNotFound(customerId);
+        }
+    }
+
+    private static ResourceNotFoundException customerNotFound(Integer customerId) {
+        return new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId));
+    }
+
+    private static ResourceNotFoundException fileNotFound(Integer customerId, Long fileId) {
+        return new ResourceNotFoundException(
+                "File with id [%s] of customer [%s] not found".formatted(fileId, customerId));
+    }
+}
@@ -0,0 +1,135 @@
+package com.matay.file;
+
+import com.matay.exception.PayloadTooLargeException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Blobs on local disk, one file per storage key under a two-character fan-out directory. Uploads go to
+ * {@code tmp/} first and are moved into place once complete and synced, so a blob that exists is always whole.
+ */
+@Component
+public class LocalBlobStore {
+
+    static final String TMP = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+
+    public LocalBlobStore(CustomerFileProperties properties) {
+        this.root = properties.root().toAbsolutePath().normalize();
+    }
+
+    public record Blob(long size, String sha256) {
+    }
+
+    public Path path(UUID storageKey) {
+        String key = storageKey.toString();
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * Copies {@code in} to the blob through one fixed buffer, so the body is never held in heap, and fails with
+     * {@link PayloadTooLargeException} as soon as it grows past {@code maxBytes}.
+     */
+    public Blob write(UUID storageKey, InputStream in, long maxBytes) throws IOException {
+        Path tmp = root.resolve(TMP).resolve(storageKey + ".part");
+        Files.createDirectories(tmp.getParent());
+        MessageDigest digest = sha256();
+        long size = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new PayloadTooLargeException("File is larger than %s bytes".formatted(maxBytes));
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                }
+                channel.force(true);
+            }
+            Path target = path(storageKey);
+            Files.createDirectories(target.getParent());
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Blob(size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    public void delete(UUID storageKey) {
+        try {
+            Files.deleteIfExists(path(storageKey));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hands every blob last modified before {@code before} to {@code consumer}, with {@code null} as key for
+     * leftovers of uploads that never completed.
+     */
+    public void forEachBlob(Instant before, BiConsumer<UUID, Path> consumer) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(before);
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                boolean tmp = directory.getFileName().toString().equals(TMP);
+                try (DirectoryStream<Path> blobs = Files.newDirectoryStream(directory)) {
+                    for (Path blob : blobs) {
+                        try {
+                            if (Files.getLastModifiedTime(blob).compareTo(cutoff) < 0) {
+                                consumer.accept(tmp ? null : storageKey(blob), blob);
+                            }
+                        } catch (NoSuchFileException e) {
+                            //deleted in the meantime
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static UUID storageKey(Path blob) {
+        try {
+            return UUID.fromString(blob.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.matay.heavyhitters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count-min sketch over int keys: {@code depth} rows of {@code width} counters, so the footprint is fixed
+ * however many keys are seen. Increments use conservative update, raising only the counters at the current minimum,
+ * which keeps the overcount of colliding keys low. Estimates only overcount, except that concurrent increments of
+ * the same key can collapse into one; for a tracker of hot keys that error is small and acceptable.
+ */
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xBF58476D1CE4E5B9L, 0x94D049BB133111EBL, 0xD6E8FEB86659FD93L,
+            0xA0761D6478BD642FL, 0xE7037ED1A0B428DBL, 0x8EBC6AF09C88C6E3L, 0x589965CC75374CC3L
+    };
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+        }
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Counts one occurrence of {@code key}.
+     *
+     * @return the new estimate for {@code key}
+     */
+    long add(int key) {
+        long target = estimate(key) + 1;
+        for (int row = 0; row < depth; row++) {
+            counters.accumulateAndGet(index(row, key), target, Math::max);
+        }
+        return target;
+    }
+
+    long estimate(int key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, key)));
+        }
+        return min;
+    }
+
+    /**
+     * Scales every counter by {@code factor}. Increments racing with the pass may be scaled or not, which only
+     * blurs the window boundary.
+     */
+    void decay(double factor) {
+        for (int i = 0; i < counters.length(); i++) {
+            long value;
+            do {
+                value = counters.get(i);
+            } while (value != 0 && !counters.compareAndSet(i, value, (long) (value * factor)));
+        }
+    }
+
+    int width() {
+        return width;
+    }
+
+    private int index(int row, int key) {
+        long hash = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        return row * width + ((int) hash & mask);
+    }
+}
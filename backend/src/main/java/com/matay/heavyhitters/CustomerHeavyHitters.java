@@ -0,0 +1,71 @@
+package com.matay.heavyhitters;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-operation heavy hitters among customer ids. Counts are aged by {@code decay} once per {@code window}, so
+ * the ranking follows recent traffic. Aging happens inline on whichever call first notices an elapsed window,
+ * there is no background thread.
+ * <p>
+ * Memory is fixed by {@code width}, {@code depth} and {@code capacity} whatever the number of distinct ids.
+ */
+@Component
+public class CustomerHeavyHitters {
+
+    public enum Operation {
+        READ, UPDATE, DELETE
+    }
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final double decay;
+    private final Map<Operation, HeavyHitters> trackers = new EnumMap<>(Operation.class);
+    private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+
+    public CustomerHeavyHitters(HeavyHittersProperties properties) {
+        this.enabled = properties.enabled();
+        this.windowNanos = properties.window().toNanos();
+        this.decay = properties.decay();
+        for (Operation operation : Operation.values()) {
+            trackers.put(operation, new HeavyHitters(properties.width(), properties.depth(), properties.capacity()));
+        }
+    }
+
+    public void record(Operation operation, Integer customerId) {
+        if (!enabled || customerId == null) {
+            return;
+        }
+        ageIfWindowElapsed();
+        trackers.get(operation).add(customerId);
+    }
+
+    public Map<Operation, HeavyHittersReport> top(int limit) {
+        ageIfWindowElapsed();
+        Map<Operation, HeavyHittersReport> reports = new EnumMap<>(Operation.class);
+        trackers.forEach((operation, tracker) ->
+                reports.put(operation, new HeavyHittersReport(tracker.total(), tracker.top(limit))));
+        return reports;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void ageIfWindowElapsed() {
+        long start = windowStartNanos.get();
+        long elapsed = System.nanoTime() - start;
+        if (elapsed < windowNanos) {
+            return;
+        }
+        //one caller wins the window and ages the counts, the others carry on counting
+        long windows = elapsed / windowNanos;
+        if (windowStartNanos.compareAndSet(start, start + windows * windowNanos)) {
+            double factor = Math.pow(decay, Math.min(windows, 64));
+            trackers.values().forEach(tracker -> tracker.decay(factor));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.matay.heavyhitters;
+
+/**
+ * @param estimate time-decayed count, an overestimate apart from increments lost to races
+ * @param share    estimate as a fraction of all decayed counts of the operation
+ */
+public record HeavyHitter(int customerId, long estimate, double share) {
+}
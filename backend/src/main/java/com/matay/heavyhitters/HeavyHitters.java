@@ -0,0 +1,116 @@
+package com.matay.heavyhitters;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the most frequent customer ids of one operation: a {@link CountMinSketch} counts every id and a fixed
+ * table of candidate ids keeps the ones with the highest estimates. An id probes a few slots; it takes an empty
+ * one, or replaces the weakest candidate it found when its own estimate is higher.
+ */
+class HeavyHitters {
+
+    private static final int PROBES = 4;
+    private static final int EMPTY = 0;
+
+    private final CountMinSketch sketch;
+    private final AtomicIntegerArray candidates;
+    private final int mask;
+    private final AtomicLong total = new AtomicLong();
+
+    HeavyHitters(int width, int depth, int capacity) {
+        this.sketch = new CountMinSketch(width, depth);
+        int slots = Integer.highestOneBit(Math.max(PROBES, capacity) - 1) << 1;
+        this.candidates = new AtomicIntegerArray(slots);
+        this.mask = slots - 1;
+    }
+
+    void add(int id) {
+        //0 marks an empty slot, and no customer has it
+        if (id == EMPTY) {
+            return;
+        }
+        total.incrementAndGet();
+        offer(id, sketch.add(id));
+    }
+
+    private void offer(int id, long estimate) {
+        int start = spread(id);
+        int weakestSlot = -1;
+        int weakestId = EMPTY;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (start + probe) & mask;
+            int current = candidates.get(slot);
+            if (current == id) {
+                return;
+            }
+            if (current == EMPTY) {
+                if (candidates.compareAndSet(slot, EMPTY, id)) {
+                    return;
+                }
+                current = candidates.get(slot);
+                if (current == id) {
+                    return;
+                }
+            }
+            long currentEstimate = sketch.estimate(current);
+            if (currentEstimate < weakestEstimate) {
+                weakestSlot = slot;
+                weakestId = current;
+                weakestEstimate = currentEstimate;
+            }
+        }
+        if (estimate > weakestEstimate) {
+            candidates.compareAndSet(weakestSlot, weakestId, id);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} candidates, highest estimate first
+     */
+    List<HeavyHitter> top(int limit) {
+        long sum = total.get();
+        int[] ids = new int[candidates.length()];
+        for (int slot = 0; slot < ids.length; slot++) {
+            ids[slot] = candidates.get(slot);
+        }
+        return Arrays.stream(ids)
+                .filter(id -> id != EMPTY)
+                .distinct()
+                .mapToObj(id -> {
+                    long estimate = sketch.estimate(id);
+                    return new HeavyHitter(id, estimate, sum == 0 ? 0 : Math.min(1.0, (double) estimate / sum));
+                })
+                .filter(hitter -> hitter.estimate() > 0)
+                .sorted(Comparator.comparingLong(HeavyHitter::estimate).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    long total() {
+        return total.get();
+    }
+
+    /**
+     * Ages all counts by {@code factor} and frees the slots of candidates whose estimate dropped to zero.
+     */
+    void decay(double factor) {
+        sketch.decay(factor);
+        total.getAndUpdate(value -> (long) (value * factor));
+        for (int slot = 0; slot < candidates.length(); slot++) {
+            int id = candidates.get(slot);
+            if (id != EMPTY && sketch.estimate(id) == 0) {
+                candidates.compareAndSet(slot, id, EMPTY);
+            }
+        }
+    }
+
+    private int spread(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,31 @@
+package com.matay.heavyhitters;
+
+import com.matay.exception.RequestValidationException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("api/v1/admin/heavy-hitters")
+public class HeavyHittersAdminController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final CustomerHeavyHitters heavyHitters;
+
+    public HeavyHittersAdminController(CustomerHeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    @GetMapping
+    public Map<CustomerHeavyHitters.Operation, HeavyHittersReport> getTop(
+            @RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+        if (!heavyHitters.isEnabled()) {
+            throw new RequestValidationException("Heavy hitter tracking is disabled");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RequestValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return heavyHitters.top(limit);
+    }
+}
@@ -0,0 +1,17 @@
+package com.matay.heavyhitters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.heavy-hitters")
+public record HeavyHittersProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4096") int width,
+        @DefaultValue("4") int depth,
+        @DefaultValue("256") int capacity,
+        @DefaultValue("60s") Duration window,
+        @DefaultValue("0.5") double decay
+) {
+}
@@ -0,0 +1,9 @@
+package com.matay.heavyhitters;
+
+import java.util.List;
+
+/**
+ * @param total decayed count of all calls of the operation
+ */
+public record HeavyHittersReport(long total, List<HeavyHitter> top) {
+}
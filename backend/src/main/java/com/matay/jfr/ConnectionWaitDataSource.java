@@ -0,0 +1,73 @@
+package com.matay.jfr;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Adds up, per thread, the time spent borrowing connections while a customer event is open on that thread, which
+ * becomes the events' {@code dbWait}. Borrows outside an event are not timed.
+ */
+public class ConnectionWaitDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Tracker> TRACKER = ThreadLocal.withInitial(Tracker::new);
+
+    static final class Tracker {
+        private int openEvents;
+        private long waitedNanos;
+
+        /**
+         * @return the wait total to hand back to {@link #close(long)}
+         */
+        long open() {
+            openEvents++;
+            return waitedNanos;
+        }
+
+        /**
+         * @return nanos waited since the matching {@link #open()}
+         */
+        long close(long waitedAtOpen) {
+            openEvents--;
+            return waitedNanos - waitedAtOpen;
+        }
+    }
+
+    public ConnectionWaitDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    static Tracker tracker() {
+        return TRACKER.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Tracker tracker = TRACKER.get();
+        if (tracker.openEvents == 0) {
+            return super.getConnection();
+        }
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            tracker.waitedNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Tracker tracker = TRACKER.get();
+        if (tracker.openEvents == 0) {
+            return super.getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            tracker.waitedNanos += System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.matay.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.matay.CustomerDao")
+@Label("Customer DAO Call")
+class CustomerDaoEvent extends CustomerOperationEvent {
+
+    @Label("DAO Type")
+    @Description("Bean name of the DAO, decorators such as nearCache and limited get events of their own")
+    String daoType;
+}
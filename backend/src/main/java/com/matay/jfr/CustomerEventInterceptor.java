@@ -0,0 +1,130 @@
+package com.matay.jfr;
+
+import com.matay.customer.Customer;
+import jdk.jfr.EventType;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Wraps each call on an instrumented bean in a {@link CustomerOperationEvent}. While no recording has the event
+ * enabled, the call goes straight through after a single enabled check.
+ */
+class CustomerEventInterceptor implements MethodInterceptor {
+
+    private static final int NO_CUSTOMER = -1;
+
+    //index of the id argument per method, looked up once and only while recording
+    private static final Map<Method, Integer> ID_PARAMETERS = new ConcurrentHashMap<>();
+
+    private final EventType eventType;
+    private final Supplier<? extends CustomerOperationEvent> eventFactory;
+    private final String daoType;
+
+    private CustomerEventInterceptor(Class<? extends CustomerOperationEvent> eventClass,
+                                     Supplier<? extends CustomerOperationEvent> eventFactory,
+                                     String daoType) {
+        this.eventType = EventType.getEventType(eventClass);
+        this.eventFactory = eventFactory;
+        this.daoType = daoType;
+    }
+
+    static CustomerEventInterceptor forRequests() {
+        return new CustomerEventInterceptor(CustomerRequestEvent.class, CustomerRequestEvent::new, null);
+    }
+
+    static CustomerEventInterceptor forService() {
+        return new CustomerEventInterceptor(CustomerServiceEvent.class, CustomerServiceEvent::new, null);
+    }
+
+    static CustomerEventInterceptor forDao(String daoType) {
+        return new CustomerEventInterceptor(CustomerDaoEvent.class, CustomerDaoEvent::new, daoType);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!eventType.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        CustomerOperationEvent event = eventFactory.get();
+        ConnectionWaitDataSource.Tracker tracker = ConnectionWaitDataSource.tracker();
+        long waitedAtOpen = tracker.open();
+        Object result = null;
+        Throwable failure = null;
+        event.begin();
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            long waited = tracker.close(waitedAtOpen);
+            if (event.shouldCommit()) {
+                event.operation = invocation.getMethod().getName();
+                event.customerId = customerId(invocation);
+                event.rowCount = rowCount(result);
+                event.dbWait = waited;
+                event.failure = failure == null ? null : failure.getClass().getSimpleName();
+                if (event instanceof CustomerDaoEvent daoEvent) {
+                    daoEvent.daoType = daoType;
+                }
+                event.commit();
+            }
+        }
+    }
+
+    private static int customerId(MethodInvocation invocation) {
+        Object[] arguments = invocation.getArguments();
+        int index = ID_PARAMETERS.computeIfAbsent(invocation.getMethod(), CustomerEventInterceptor::idParameter);
+        if (index == NO_CUSTOMER) {
+            return 0;
+        }
+        Object argument = arguments[index];
+        if (argument instanceof Integer id) {
+            return id;
+        }
+        if (argument instanceof Customer customer && customer.getId() != null) {
+            return customer.getId();
+        }
+        return 0;
+    }
+
+    //relies on -parameters, which the Spring Boot parent turns on
+    private static int idParameter(Method method) {
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            boolean idName = parameter.getName().equals("id") || parameter.getName().equals("customerId");
+            if ((idName && parameter.getType() == Integer.class) || parameter.getType() == Customer.class) {
+                return i;
+            }
+        }
+        return NO_CUSTOMER;
+    }
+
+    private static int rowCount(Object result) {
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        if (result instanceof Optional<?> row) {
+            return row.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Customer) {
+            return 1;
+        }
+        if (result instanceof Boolean found) {
+            return found ? 1 : 0;
+        }
+        return 0;
+    }
+}
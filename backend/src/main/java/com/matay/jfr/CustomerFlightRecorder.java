@@ -0,0 +1,114 @@
+package com.matay.jfr;
+
+import com.matay.exception.RequestValidationException;
+import com.matay.exception.ResourceNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts, stops and dumps one flight recording at a time on this node. Recordings are bounded by
+ * {@code max-size}, {@code max-age} and {@code max-duration}, so a forgotten one cannot fill the disk, and the
+ * last recording stays available for dumping until the next one is started.
+ */
+@Service
+public class CustomerFlightRecorder {
+
+    private static final String RECORDING_NAME = "customer";
+    //the shipped settings record the process environment, system properties and JVM arguments at startup, which
+    //carry credentials such as the datasource password
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.InitialSecurityProperty",
+            "jdk.JVMInformation"
+    );
+
+    private final FlightRecorderProperties properties;
+    private Recording recording;
+
+    public CustomerFlightRecorder(FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized FlightRecordingStatus start(Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RequestValidationException("A flight recording is already running");
+        }
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new RequestValidationException("Recording duration must be positive");
+        }
+        if (recording != null) {
+            recording.close();
+        }
+
+        Recording started = new Recording(configuration());
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxSize(properties.maxSize().toBytes());
+        started.setMaxAge(properties.maxAge());
+        started.setDuration(duration == null || duration.compareTo(properties.maxDuration()) > 0
+                ? properties.maxDuration()
+                : duration);
+        SENSITIVE_EVENTS.forEach(started::disable);
+        for (Class<? extends CustomerOperationEvent> eventClass :
+                List.of(CustomerRequestEvent.class, CustomerServiceEvent.class, CustomerDaoEvent.class)) {
+            started.enable(eventClass).withThreshold(properties.threshold());
+        }
+        started.start();
+        recording = started;
+        return status();
+    }
+
+    public synchronized FlightRecordingStatus stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new RequestValidationException("No flight recording is running");
+        }
+        recording.stop();
+        return status();
+    }
+
+    public synchronized FlightRecordingStatus status() {
+        if (recording == null) {
+            return new FlightRecordingStatus(RecordingState.NEW.name(), null, null, null, 0);
+        }
+        return new FlightRecordingStatus(
+                recording.getState().name(),
+                recording.getStartTime(),
+                recording.getStopTime(),
+                recording.getDuration(),
+                recording.getSize()
+        );
+    }
+
+    /**
+     * Writes the data of the current or last recording to a temporary file, which the caller has to delete.
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new ResourceNotFoundException("No flight recording to dump");
+        }
+        try {
+            Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Configuration configuration() {
+        try {
+            return Configuration.getConfiguration(properties.settings());
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR settings " + properties.settings(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.matay.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Fields shared by the customer events. The event duration is the time spent in the operation, including every
+ * nested call.
+ */
+@Category({"Customer"})
+@StackTrace(false)
+abstract class CustomerOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Customer Id")
+    @Description("Id the operation is about, 0 when it is not about a single customer")
+    int customerId;
+
+    @Label("Row Count")
+    @Description("Customers returned or found, 0 for writes and streamed results")
+    int rowCount;
+
+    @Label("DB Wait")
+    @Description("Time the thread spent waiting for a pooled database connection during the operation")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbWait;
+
+    @Label("Failure")
+    @Description("Simple name of the exception the operation failed with")
+    String failure;
+}
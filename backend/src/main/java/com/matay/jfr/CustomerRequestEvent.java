@@ -0,0 +1,9 @@
+package com.matay.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.matay.CustomerRequest")
+@Label("Customer Request")
+class CustomerRequestEvent extends CustomerOperationEvent {
+}
@@ -0,0 +1,9 @@
+package com.matay.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.matay.CustomerService")
+@Label("Customer Service Call")
+class CustomerServiceEvent extends CustomerOperationEvent {
+}
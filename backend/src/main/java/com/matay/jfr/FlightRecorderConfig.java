@@ -0,0 +1,83 @@
+package com.matay.jfr;
+
+import com.matay.customer.CustomerController;
+import com.matay.customer.CustomerDao;
+import com.matay.customer.CustomerService;
+import com.matay.datasource.DataSourceWrapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+@Configuration
+@ConditionalOnProperty(prefix = "customer.flight-recorder", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfig {
+
+    //closest to the pool, so only the borrow itself counts as waiting
+    @Bean
+    @Order(1)
+    DataSourceWrapper connectionWaitDataSourceWrapper() {
+        return ConnectionWaitDataSource::new;
+    }
+
+    /**
+     * Emits customer events around the public methods of the controller, the service and every DAO bean, with the
+     * bean name as DAO type. Runs after the auto-proxy creator so beans that already got a transactional proxy
+     * have the interceptor added in front of the transaction advice, and the event covers the whole transaction.
+     */
+    @Bean
+    static BeanPostProcessor customerEventPostProcessor() {
+        return new CustomerEventPostProcessor();
+    }
+
+    private static class CustomerEventPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            MethodInterceptor interceptor;
+            if (bean instanceof CustomerController) {
+                interceptor = CustomerEventInterceptor.forRequests();
+            } else if (bean instanceof CustomerService) {
+                interceptor = CustomerEventInterceptor.forService();
+            } else if (bean instanceof CustomerDao) {
+                interceptor = CustomerEventInterceptor.forDao(beanName);
+            } else {
+                return bean;
+            }
+
+            DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new PublicMethodPointcut(), interceptor);
+            if (bean instanceof Advised advised && !advised.isFrozen() && AopUtils.isAopProxy(bean)) {
+                advised.addAdvisor(0, advisor);
+                return bean;
+            }
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvisor(advisor);
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+
+    private static class PublicMethodPointcut extends StaticMethodMatcherPointcut {
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    }
+}
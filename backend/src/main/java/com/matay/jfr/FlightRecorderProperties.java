@@ -0,0 +1,18 @@
+package com.matay.jfr;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.flight-recorder")
+public record FlightRecorderProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("0ms") Duration threshold,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("10m") Duration maxAge,
+        @DefaultValue("30m") Duration maxDuration
+) {
+}
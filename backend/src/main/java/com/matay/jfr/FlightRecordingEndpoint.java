@@ -0,0 +1,92 @@
+package com.matay.jfr;
+
+import com.matay.exception.ResourceNotFoundException;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Flight recording control on the management side, {@code /actuator/flightrecording}. Like the heap dump endpoint it
+ * is not exposed unless listed in {@code management.endpoints.web.exposure.include}, preferably together with a
+ * separate {@code management.server.port}.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private final CustomerFlightRecorder flightRecorder;
+
+    public FlightRecordingEndpoint(CustomerFlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    @ReadOperation
+    public FlightRecordingStatus getStatus() {
+        return flightRecorder.status();
+    }
+
+    // POST /actuator/flightrecording/start {"duration": "5m"} and POST /actuator/flightrecording/stop
+    @WriteOperation
+    public FlightRecordingStatus control(@Selector String action, @Nullable Duration duration) {
+        return switch (action) {
+            case "start" -> flightRecorder.start(duration);
+            case "stop" -> flightRecorder.stop();
+            default -> throw new ResourceNotFoundException("Unknown flight recording action [%s]".formatted(action));
+        };
+    }
+
+    // GET /actuator/flightrecording/dump
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector String action) {
+        if (!action.equals("dump")) {
+            throw new ResourceNotFoundException("Unknown flight recording action [%s]".formatted(action));
+        }
+        return new TemporaryFileResource(flightRecorder.dump());
+    }
+
+    /**
+     * Deletes the dump once it has been read.
+     */
+    private static class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        @Override
+        public String getFilename() {
+            return "customer.jfr";
+        }
+    }
+}
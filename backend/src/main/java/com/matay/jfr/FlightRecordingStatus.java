@@ -0,0 +1,13 @@
+package com.matay.jfr;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record FlightRecordingStatus(
+        String state,
+        Instant startTime,
+        Instant stopTime,
+        Duration duration,
+        long sizeBytes
+) {
+}
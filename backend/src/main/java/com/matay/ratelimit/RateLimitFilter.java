@@ -0,0 +1,106 @@
+package com.matay.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matay.customer.CustomerRoute;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies per-client token buckets to the customer endpoints and sheds load early while the JDBC pool
+ * already has too many threads waiting for a connection.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final HikariDataSource hikariDataSource;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public RateLimitFilter(RateLimitProperties properties, DataSource dataSource) {
+        this.properties = properties;
+        this.hikariDataSource = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        //bounded key table, idle clients fall out and start with a full bucket again
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !properties.enabled() || !path.startsWith(CustomerRoute.CUSTOMERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (poolSaturated()) {
+            shed.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is overloaded, please retry later");
+            return;
+        }
+
+        CustomerRoute route = CustomerRoute.of(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(route + ":" + clientKey(request), key -> {
+            RateLimitProperties.Limit limit = properties.limitFor(route);
+            return new TokenBucket(limit.permitsPerSecond(), limit.burst(), now);
+        });
+
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            limited.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    public long getLimitedCount() {
+        return limited.sum();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    //an unknown key would let a client pick a fresh bucket per request
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.apiKeyHeader());
+        return apiKey != null && properties.apiKeys().contains(apiKey)
+                ? "key:" + apiKey
+                : "ip:" + request.getRemoteAddr();
+    }
+
+    private boolean poolSaturated() {
+        if (hikariDataSource == null) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        return pool != null && pool.getThreadsAwaitingConnection() >= properties.maxThreadsAwaitingConnection();
+    }
+}
@@ -0,0 +1,47 @@
+package com.matay.ratelimit;
+
+import com.matay.customer.CustomerRoute;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "customer.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        //keys that get a budget of their own, any other client is limited by its address
+        Set<String> apiKeys,
+        @DefaultValue("100000") long maxClients,
+        Limit list,
+        Limit pointRead,
+        Limit write,
+        Limit transfer,
+        @DefaultValue("10") int maxThreadsAwaitingConnection
+) {
+    public record Limit(double permitsPerSecond, int burst) {
+
+        public Limit {
+            if (!(permitsPerSecond > 0)) {
+                throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+            }
+        }
+    }
+
+    public RateLimitProperties {
+        apiKeys = apiKeys != null ? Set.copyOf(apiKeys) : Set.of();
+        list = list != null ? list : new Limit(5, 10);
+        pointRead = pointRead != null ? pointRead : new Limit(100, 200);
+        write = write != null ? write : new Limit(20, 40);
+        transfer = transfer != null ? transfer : new Limit(5, 10);
+    }
+
+    Limit limitFor(CustomerRoute route) {
+        return switch (route) {
+            case LIST -> list;
+            case POINT_READ -> pointRead;
+            case WRITE -> write;
+            case TRANSFER -> transfer;
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package com.matay.resilience;
+
+import com.matay.deadline.RequestDeadline;
+import com.matay.exception.DatabaseUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker in front of the database. The outcomes of the last {@code windowSize} calls are kept in a ring;
+ * once at least {@code minimumCalls} are in it and either the failure rate or the slow call rate crosses its
+ * threshold, the breaker opens and calls are rejected without touching the database. After {@code openDuration}
+ * it lets {@code halfOpenCalls} trial calls through: if all of them succeed in time it closes again, any failed or
+ * slow one opens it for another period.
+ * <p>
+ * Only transient and infrastructure data access failures count as failures. Non-transient ones such as integrity
+ * violations or bad SQL were answered by a working database and count as successes, so invalid requests cannot open
+ * the breaker. Calls rejected by the concurrency limiter or failing for other reasons release their permit without
+ * being recorded.
+ */
+@Component
+public class CircuitBreaker implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    private final CircuitBreakerProperties properties;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private final Object lock = new Object();
+    private final byte[] window;
+    private int position;
+    private int buffered;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPeriod;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(CircuitBreakerProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    CircuitBreaker(CircuitBreakerProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.slowCallNanos = properties.slowCallDuration().toNanos();
+        this.openNanos = properties.openDuration().toNanos();
+        this.nanoClock = nanoClock;
+        this.window = new byte[properties.windowSize()];
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        if (!properties.enabled()) {
+            return operation.get();
+        }
+        int trial = acquire();
+        long start = nanoClock.getAsLong();
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            T result = operation.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (DataAccessException e) {
+            //a statement cancelled because the caller ran out of time only tells how long it ran
+            outcome = RequestDeadline.isExpired() || !isDatabaseFailure(e) ? Outcome.SUCCESS : Outcome.FAILURE;
+            throw e;
+        } finally {
+            record(outcome, nanoClock.getAsLong() - start, trial);
+        }
+    }
+
+    //connection, timeout and resource errors, plus whatever could not be categorised
+    static boolean isDatabaseFailure(DataAccessException e) {
+        return e instanceof DataAccessResourceFailureException
+                || !(e instanceof NonTransientDataAccessException);
+    }
+
+    /**
+     * @return the half-open period the call is a trial call of, or {@code 0} for a regular call
+     */
+    int acquire() {
+        synchronized (lock) {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                halfOpenPeriod++;
+                trialsInFlight = 0;
+                trialSuccesses = 0;
+            }
+            if (state == State.CLOSED) {
+                return 0;
+            }
+            if (state == State.HALF_OPEN && trialsInFlight + trialSuccesses < properties.halfOpenCalls()) {
+                trialsInFlight++;
+                return halfOpenPeriod;
+            }
+        }
+        rejected.increment();
+        throw new DatabaseUnavailableException("Database circuit breaker is open");
+    }
+
+    private void record(Outcome outcome, long elapsedNanos, int trial) {
+        boolean slow = elapsedNanos >= slowCallNanos;
+        synchronized (lock) {
+            if (trial != 0 && trial == halfOpenPeriod && state == State.HALF_OPEN) {
+                trialsInFlight--;
+                if (outcome == Outcome.FAILURE || (outcome == Outcome.SUCCESS && slow)) {
+                    open();
+                } else if (outcome == Outcome.SUCCESS && ++trialSuccesses >= properties.halfOpenCalls()) {
+                    close();
+                }
+                return;
+            }
+            //calls admitted in another state than the current one no longer count
+            if (trial != 0 || state != State.CLOSED || outcome == Outcome.IGNORED) {
+                return;
+            }
+            add((byte) ((outcome == Outcome.FAILURE ? FAILED : 0) | (slow ? SLOW : 0)));
+            if (buffered >= properties.minimumCalls()
+                    && (failures >= properties.failureRateThreshold() * buffered
+                    || slowCalls >= properties.slowCallRateThreshold() * buffered)) {
+                open();
+            }
+        }
+    }
+
+    private void add(byte flags) {
+        if (buffered == window.length) {
+            byte evicted = window[position];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            buffered++;
+        }
+        window[position] = flags;
+        failures += flags & FAILED;
+        slowCalls += (flags & SLOW) >> 1;
+        position = (position + 1) % window.length;
+    }
+
+    private void open() {
+        if (state == State.CLOSED) {
+            log.warn("Opening database circuit breaker, {} of {} calls failed and {} were slow",
+                    failures, buffered, slowCalls);
+        }
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        opened.increment();
+    }
+
+    private void close() {
+        log.info("Closing database circuit breaker");
+        state = State.CLOSED;
+        position = 0;
+        buffered = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    public State getState() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    public CircuitBreakerStatus status() {
+        synchronized (lock) {
+            return new CircuitBreakerStatus(
+                    state,
+                    buffered == 0 ? 0 : (double) failures / buffered,
+                    buffered == 0 ? 0 : (double) slowCalls / buffered,
+                    buffered,
+                    rejected.sum(),
+                    opened.sum()
+            );
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        //0 closed, 1 open, 2 half open
+        Gauge.builder("customer.circuit-breaker.state", this, breaker -> breaker.getState().ordinal())
+                .register(registry);
+        FunctionCounter.builder("customer.circuit-breaker.rejected", this, CircuitBreaker::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("customer.circuit-breaker.opened", this, CircuitBreaker::getOpenedCount)
+                .register(registry);
+    }
+}
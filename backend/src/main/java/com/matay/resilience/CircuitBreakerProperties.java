@@ -0,0 +1,19 @@
+package com.matay.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.circuit-breaker")
+public record CircuitBreakerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int windowSize,
+        @DefaultValue("20") int minimumCalls,
+        @DefaultValue("0.5") double failureRateThreshold,
+        @DefaultValue("1s") Duration slowCallDuration,
+        @DefaultValue("0.8") double slowCallRateThreshold,
+        @DefaultValue("10s") Duration openDuration,
+        @DefaultValue("5") int halfOpenCalls
+) {
+}
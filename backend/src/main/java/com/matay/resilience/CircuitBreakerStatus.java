@@ -0,0 +1,11 @@
+package com.matay.resilience;
+
+public record CircuitBreakerStatus(
+        CircuitBreaker.State state,
+        double failureRate,
+        double slowCallRate,
+        int bufferedCalls,
+        long rejectedCalls,
+        long timesOpened
+) {
+}
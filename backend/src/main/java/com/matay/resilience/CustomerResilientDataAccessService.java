@@ -0,0 +1,221 @@
+package com.matay.resilience;
+
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerDao;
+import com.matay.deadline.RequestDeadline;
+import com.matay.exception.DatabaseUnavailableException;
+import com.matay.exception.DeadlineExceededException;
+import com.matay.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers reads by id from {@link CustomerStaleCache} when the database cannot: the query failed or timed out, the
+ * concurrency limiter shed it or the {@link CircuitBreaker} is open. Each fallback queues a background refresh of
+ * the ids it served, so after the breaker's open period the trial calls mostly come from the refresher instead of
+ * user requests, and the stale entries catch up as soon as the database answers again.
+ * <p>
+ * Reads inside a transaction never fall back, a read-modify-write must not start from stale data. Outside a
+ * transaction callers that modify what they read, such as {@code CustomerService.updateCustomer}, refuse a
+ * {@link StaleCustomer} instead.
+ */
+@Repository("resilient")
+public class CustomerResilientDataAccessService implements CustomerDao, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerResilientDataAccessService.class);
+
+    private final CustomerDao customerDao;
+    private final CustomerStaleCache customerStaleCache;
+    private final boolean enabled;
+    private final Duration refreshTimeout;
+    private final ThreadPoolExecutor refresher;
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder droppedRefreshes = new LongAdder();
+
+    public CustomerResilientDataAccessService(@Qualifier("nearCache") CustomerDao customerDao,
+                                              CustomerStaleCache customerStaleCache,
+                                              StaleReadProperties properties) {
+        this.customerDao = customerDao;
+        this.customerStaleCache = customerStaleCache;
+        this.enabled = properties.enabled();
+        this.refreshTimeout = properties.refreshTimeout();
+        this.refresher = new ThreadPoolExecutor(
+                properties.refreshThreads(), properties.refreshThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.refreshQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "customer-stale-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        if (!enabled) {
+            return customerDao.selectCustomerById(id);
+        }
+        try {
+            Optional<Customer> customer = customerDao.selectCustomerById(id);
+            remember(List.of(id), customer.stream().toList());
+            customerStaleCache.recordFresh(customer.isPresent() ? 1 : 0);
+            return customer;
+        } catch (RuntimeException e) {
+            StaleCustomer stale = canFallBack(e) ? customerStaleCache.get(id) : null;
+            if (stale == null) {
+                throw e;
+            }
+            refresh(List.of(id));
+            return Optional.of(stale);
+        }
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        if (!enabled) {
+            return customerDao.selectCustomersByIds(ids);
+        }
+        try {
+            List<Customer> customers = customerDao.selectCustomersByIds(ids);
+            remember(ids, customers);
+            customerStaleCache.recordFresh(customers.size());
+            return customers;
+        } catch (RuntimeException e) {
+            if (!canFallBack(e)) {
+                throw e;
+            }
+            Set<Integer> distinctIds = new HashSet<>(ids);
+            List<StaleCustomer> stale = new ArrayList<>();
+            for (Integer id : distinctIds) {
+                StaleCustomer customer = customerStaleCache.get(id);
+                if (customer != null) {
+                    stale.add(customer);
+                }
+            }
+            if (stale.isEmpty()) {
+                throw e;
+            }
+            refresh(distinctIds);
+            //the missing ids may well exist, they must not come back as not found
+            if (stale.size() < distinctIds.size()) {
+                throw new PartialStaleReadException(stale, e);
+            }
+            return new ArrayList<>(stale);
+        }
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        customerDao.insertCustomer(customer);
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        customerDao.insertCustomers(customers);
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return customerDao.existsPersonWithEmail(email);
+    }
+
+    @Override
+    public boolean existPersonWithId(Integer id) {
+        return customerDao.existPersonWithId(id);
+    }
+
+    @Override
+    public void deleteCustomerById(Integer id) {
+        customerDao.deleteCustomerById(id);
+        customerStaleCache.invalidate(id);
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        customerDao.updateCustomer(updatedCustomer);
+        customerStaleCache.invalidate(updatedCustomer.getId());
+    }
+
+    private void remember(Collection<Integer> ids, List<Customer> customers) {
+        Set<Integer> missing = new HashSet<>(ids);
+        for (Customer customer : customers) {
+            customerStaleCache.put(customer);
+            missing.remove(customer.getId());
+        }
+        missing.forEach(customerStaleCache::invalidate);
+    }
+
+    private static boolean canFallBack(RuntimeException e) {
+        boolean unavailable = e instanceof DataAccessException
+                || e instanceof DatabaseUnavailableException
+                || e instanceof ServiceOverloadedException
+                || e instanceof DeadlineExceededException;
+        return unavailable && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void refresh(Collection<Integer> ids) {
+        List<Integer> batch = ids.stream().filter(refreshing::add).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                //without a deadline a hanging statement would hold this thread and a breaker trial slot
+                RequestDeadline.set(refreshTimeout);
+                try {
+                    refreshes.increment();
+                    remember(batch, customerDao.selectCustomersByIds(batch));
+                } catch (RuntimeException e) {
+                    log.debug("Refreshing {} stale customers failed", batch.size(), e);
+                } finally {
+                    RequestDeadline.clear();
+                    batch.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            droppedRefreshes.increment();
+            batch.forEach(refreshing::remove);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.stale-read.refreshes", refreshes, LongAdder::sum).register(registry);
+        FunctionCounter.builder("customer.stale-read.refreshes.dropped", droppedRefreshes, LongAdder::sum)
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.matay.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerChangeEvent;
+import com.matay.customer.CustomerChangeSubscriber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Last customer read per id, kept to answer reads while the database cannot. Unlike {@link
+ * com.matay.customer.CustomerNearCache} it is allowed to be out of date: entries only leave on local writes, change
+ * notifications, eviction and {@code maxAge}. A disconnected change listener keeps them, because a failing database
+ * is exactly when they are needed; callers can tell from the {@link StaleCustomer} they get back.
+ */
+@Component
+public class CustomerStaleCache implements CustomerChangeSubscriber, MeterBinder {
+
+    private record Entry(Customer customer, long readAtNanos) {
+    }
+
+    private final Cache<Integer, Entry> customers;
+    private final LongAdder fresh = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public CustomerStaleCache(StaleReadProperties properties) {
+        this.customers = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.maxAge())
+                .build();
+    }
+
+    /**
+     * Remembers a customer the database just returned.
+     */
+    public void put(Customer customer) {
+        customers.put(customer.getId(), new Entry(copy(customer), System.nanoTime()));
+    }
+
+    /**
+     * Counts customers answered by the database, for comparison with the ones served stale.
+     */
+    public void recordFresh(int count) {
+        fresh.add(count);
+    }
+
+    /**
+     * @return a copy of the last read of {@code id}, or {@code null} when there is none
+     */
+    public StaleCustomer get(Integer id) {
+        Entry entry = customers.getIfPresent(id);
+        if (entry == null) {
+            return null;
+        }
+        stale.increment();
+        return new StaleCustomer(entry.customer(), Duration.ofNanos(System.nanoTime() - entry.readAtNanos()));
+    }
+
+    public void invalidate(Integer id) {
+        if (id != null) {
+            customers.invalidate(id);
+        }
+    }
+
+    @Override
+    public void onChange(CustomerChangeEvent event) {
+        invalidate(event.customerId());
+    }
+
+    @Override
+    public void onResync() {
+    }
+
+    public long getFreshCount() {
+        return fresh.sum();
+    }
+
+    public long getStaleCount() {
+        return stale.sum();
+    }
+
+    public long size() {
+        return customers.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.stale-read.served", this, CustomerStaleCache::getFreshCount)
+                .tag("source", "fresh")
+                .register(registry);
+        FunctionCounter.builder("customer.stale-read.served", this, CustomerStaleCache::getStaleCount)
+                .tag("source", "stale")
+                .register(registry);
+        Gauge.builder("customer.stale-read.size", this, CustomerStaleCache::size)
+                .register(registry);
+    }
+
+    private static Customer copy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+    }
+}
@@ -0,0 +1,25 @@
+package com.matay.resilience;
+
+import com.matay.customer.Customer;
+import com.matay.exception.DatabaseUnavailableException;
+
+import java.util.List;
+
+/**
+ * A multi-id read the database could not answer, of which only some customers were found in the stale cache.
+ * Callers reading on behalf of several requests can still answer the ones in {@link #getStaleCustomers()}.
+ */
+public class PartialStaleReadException extends DatabaseUnavailableException {
+
+    private final List<StaleCustomer> staleCustomers;
+
+    public PartialStaleReadException(List<StaleCustomer> staleCustomers, RuntimeException cause) {
+        super("Database unavailable and only %s customers could be read stale".formatted(staleCustomers.size()),
+                cause);
+        this.staleCustomers = staleCustomers;
+    }
+
+    public List<StaleCustomer> getStaleCustomers() {
+        return staleCustomers;
+    }
+}
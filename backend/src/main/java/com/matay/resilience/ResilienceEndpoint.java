@@ -0,0 +1,32 @@
+package com.matay.resilience;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker and stale cache state on the management side, {@code /actuator/resilience}. Not exposed unless
+ * listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@WebEndpoint(id = "resilience")
+public class ResilienceEndpoint {
+
+    private final CircuitBreaker circuitBreaker;
+    private final CustomerStaleCache customerStaleCache;
+
+    public ResilienceEndpoint(CircuitBreaker circuitBreaker, CustomerStaleCache customerStaleCache) {
+        this.circuitBreaker = circuitBreaker;
+        this.customerStaleCache = customerStaleCache;
+    }
+
+    @ReadOperation
+    public ResilienceStatus getStatus() {
+        return new ResilienceStatus(
+                circuitBreaker.status(),
+                customerStaleCache.getFreshCount(),
+                customerStaleCache.getStaleCount(),
+                customerStaleCache.size()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.matay.resilience;
+
+public record ResilienceStatus(
+        CircuitBreakerStatus circuitBreaker,
+        long freshReads,
+        long staleReads,
+        long staleEntries
+) {
+}
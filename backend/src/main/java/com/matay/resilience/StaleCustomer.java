@@ -0,0 +1,26 @@
+package com.matay.resilience;
+
+import com.matay.customer.Customer;
+
+import java.time.Duration;
+
+/**
+ * A customer served from {@link CustomerStaleCache} instead of the database. It serializes like any other customer,
+ * {@link #staleness()} is not a bean property.
+ */
+public class StaleCustomer extends Customer {
+
+    private final Duration staleness;
+
+    public StaleCustomer(Customer customer, Duration staleness) {
+        super(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+        this.staleness = staleness;
+    }
+
+    /**
+     * @return how long ago the customer was read from the database
+     */
+    public Duration staleness() {
+        return staleness;
+    }
+}
@@ -0,0 +1,17 @@
+package com.matay.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.stale-read")
+public record StaleReadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxSize,
+        @DefaultValue("1h") Duration maxAge,
+        @DefaultValue("1") int refreshThreads,
+        @DefaultValue("256") int refreshQueueSize,
+        @DefaultValue("2s") Duration refreshTimeout
+) {
+}
@@ -0,0 +1,203 @@
+package com.matay.sharding;
+
+import com.matay.exception.RequestValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Moves slots between shards while the application keeps serving traffic.
+ * <p>
+ * A move bulk-copies the slot without blocking writers, then briefly takes the slot's write lock to copy the
+ * rows changed since the copy started, flips the slot map and deletes the source rows. Writers are only
+ * coordinated on the node running the move, so other nodes should stop writing to the slot (or be reloaded
+ * right after) when running more than one instance.
+ * <p>
+ * Rows are copied and deleted in batches of {@value #BATCH_SIZE} inside transactions that set
+ * {@code customer.slot_move}, so the change tracking triggers neither tombstone nor announce moved customers.
+ */
+@Service
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "true")
+public class CustomerShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerShardRebalancer.class);
+    static final int BATCH_SIZE = 1000;
+
+    private static final RowMapper<SlotRow> SLOT_ROW_MAPPER = (rs, rowNum) -> new SlotRow(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getInt("age"),
+            rs.getTimestamp("deleted_at")
+    );
+
+    private final ShardRegistry shardRegistry;
+
+    public CustomerShardRebalancer(ShardRegistry shardRegistry) {
+        this.shardRegistry = shardRegistry;
+    }
+
+    private record SlotRow(int id, String name, String email, int age, Timestamp deletedAt) {
+    }
+
+    public synchronized int moveSlot(int slot, int targetShard) {
+        if (slot < 0 || slot >= shardRegistry.slots()) {
+            throw new RequestValidationException("Slot %s does not exist".formatted(slot));
+        }
+        if (targetShard < 0 || targetShard >= shardRegistry.shards().size()) {
+            throw new RequestValidationException("Shard %s does not exist".formatted(targetShard));
+        }
+        int sourceShard = shardRegistry.shardIndexOfSlot(slot);
+        if (sourceShard == targetShard) {
+            return 0;
+        }
+
+        JdbcTemplate source = shardRegistry.shards().get(sourceShard);
+        JdbcTemplate target = shardRegistry.shards().get(targetShard);
+        //file ids are per shard and the rows would cascade away with their customers
+        if (hasFiles(source, slot)) {
+            throw new RequestValidationException(
+                    "Slot %s has customer files, which cannot be moved between shards".formatted(slot));
+        }
+
+        //writers in flight hold the read lock, so once we get the write lock every change at or below the
+        //watermark is committed and the bulk copy covers it
+        Lock lock = shardRegistry.slotLock(slot).writeLock();
+        long watermark;
+        lock.lock();
+        try {
+            watermark = source.queryForObject("SELECT last_value FROM customer_change_seq", Long.class);
+        } finally {
+            lock.unlock();
+        }
+        int copied = copySlot(source, target, slot, 0L);
+
+        lock.lock();
+        try {
+            copied += copySlot(source, target, slot, watermark);
+            List<Integer> deleted = source.queryForList("""
+                    SELECT id FROM customer_tombstone
+                    WHERE change_seq > ? AND id % ? = ?
+                    """, Integer.class, watermark, shardRegistry.slots(), slot);
+            if (!deleted.isEmpty()) {
+                inSlotMove(target, shard -> shard.update(
+                        "DELETE FROM customer WHERE id = ANY (?)",
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", deleted.toArray()))
+                ));
+            }
+
+            shardRegistry.alignIdSequence(target);
+            shardRegistry.assign(slot, targetShard);
+        } finally {
+            lock.unlock();
+        }
+
+        deleteSlot(source, slot);
+        log.info("Moved slot {} from shard {} to shard {} ({} rows)", slot, sourceShard, targetShard, copied);
+        return copied;
+    }
+
+    /**
+     * Moves every other slot owned by {@code sourceShard} to {@code targetShard}.
+     */
+    public synchronized List<Integer> splitShard(int sourceShard, int targetShard) {
+        int[] slotMap = shardRegistry.slotMap();
+        List<Integer> owned = new ArrayList<>();
+        for (int slot = 0; slot < slotMap.length; slot++) {
+            if (slotMap[slot] == sourceShard) {
+                owned.add(slot);
+            }
+        }
+
+        List<Integer> moved = new ArrayList<>();
+        for (int i = 1; i < owned.size(); i += 2) {
+            moveSlot(owned.get(i), targetShard);
+            moved.add(owned.get(i));
+        }
+        return moved;
+    }
+
+    private boolean hasFiles(JdbcTemplate source, int slot) {
+        Boolean exists = source.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM customer_file WHERE customer_id % ? = ?)",
+                Boolean.class, shardRegistry.slots(), slot
+        );
+        return Boolean.TRUE.equals(exists);
+    }
+
+    //walks the slot index in id order, one batch in memory at a time
+    private int copySlot(JdbcTemplate source, JdbcTemplate target, int slot, long afterChangeSeq) {
+        var sql = """
+                SELECT id, name, email, age, deleted_at
+                FROM customer
+                WHERE %s = ? AND id > ? AND change_seq > ?
+                ORDER BY id
+                LIMIT ?
+                """.formatted(shardRegistry.slotExpression());
+        int copied = 0;
+        int lastId = Integer.MIN_VALUE;
+        List<SlotRow> batch;
+        do {
+            batch = source.query(sql, SLOT_ROW_MAPPER, slot, lastId, afterChangeSeq, BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                copy(target, batch);
+                copied += batch.size();
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return copied;
+    }
+
+    private void copy(JdbcTemplate target, List<SlotRow> rows) {
+        inSlotMove(target, shard -> shard.batchUpdate("""
+                INSERT INTO customer(id, name, email, age, deleted_at)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (id) DO UPDATE
+                SET name = excluded.name, email = excluded.email, age = excluded.age, deleted_at = excluded.deleted_at
+                """, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.id());
+            ps.setString(2, row.name());
+            ps.setString(3, row.email());
+            ps.setInt(4, row.age());
+            ps.setTimestamp(5, row.deletedAt());
+        }));
+    }
+
+    private void deleteSlot(JdbcTemplate source, int slot) {
+        var sql = """
+                DELETE FROM customer
+                WHERE id IN (
+                    SELECT id FROM customer
+                    WHERE %s = ?
+                    ORDER BY id
+                    LIMIT ?
+                )
+                """.formatted(shardRegistry.slotExpression());
+        int[] deleted = new int[1];
+        do {
+            inSlotMove(source, shard -> deleted[0] = shard.update(sql, slot, BATCH_SIZE));
+        } while (deleted[0] == BATCH_SIZE);
+    }
+
+    /**
+     * Runs {@code work} in a transaction on {@code shard} flagged as slot move for the change tracking triggers.
+     * The flag is transaction local, so it never leaks to other users of the pooled connection.
+     */
+    private static void inSlotMove(JdbcTemplate shard, Consumer<JdbcTemplate> work) {
+        new TransactionTemplate(new DataSourceTransactionManager(shard.getDataSource())).executeWithoutResult(status -> {
+            shard.queryForObject("SELECT set_config('customer.slot_move', 'on', true)", String.class);
+            work.accept(shard);
+        });
+    }
+}
@@ -0,0 +1,257 @@
+package com.matay.sharding;
+
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerDao;
+import com.matay.customer.CustomerRowMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Customer DAO spread over several Postgres databases. Point operations are routed by the slot encoded in the
+ * customer id, email uniqueness is enforced by {@code customer_email_directory} on the directory shard, and
+ * multi-shard reads are scattered in parallel and merged by id. Soft deletes work as in the JDBC DAO, the email is
+ * released from the directory right away since the shard's unique index only covers live rows.
+ */
+@Repository("sharded")
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "true")
+public class CustomerShardedDataAccessService implements CustomerDao {
+
+    private final ShardRegistry shardRegistry;
+    private final CustomerRowMapper customerRowMapper;
+    private final boolean softDelete;
+    private final ExecutorService scatter;
+
+    public CustomerShardedDataAccessService(ShardRegistry shardRegistry,
+                                            CustomerRowMapper customerRowMapper,
+                                            @Value("${customer.soft-delete.enabled:false}") boolean softDelete) {
+        this.shardRegistry = shardRegistry;
+        this.customerRowMapper = customerRowMapper;
+        this.softDelete = softDelete;
+        this.scatter = Executors.newFixedThreadPool(shardRegistry.shards().size() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "customer-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        var sql = """
+                SELECT id, name, email, age FROM customer WHERE deleted_at IS NULL
+                """;
+
+        return gather(shardRegistry.shards(), shard -> shard.query(sql, customerRowMapper));
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                """;
+
+        return shardRegistry.shardOfCustomer(id).query(sql, customerRowMapper, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY (?)
+                  AND deleted_at IS NULL
+                """;
+
+        Map<JdbcTemplate, List<Integer>> idsByShard = ids.stream()
+                .collect(Collectors.groupingBy(shardRegistry::shardOfCustomer));
+        return gather(idsByShard.keySet(), shard -> shard.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", idsByShard.get(shard).toArray())),
+                customerRowMapper
+        ));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        int slot = shardRegistry.slotForEmail(customer.getEmail());
+
+        //claim the email first, a concurrent registration of the same email fails here with DuplicateKeyException
+        shardRegistry.directory().update(
+                "INSERT INTO customer_email_directory(email, slot) VALUES (?, ?)",
+                customer.getEmail(), slot
+        );
+
+        var sql = """
+                INSERT INTO customer(id, name, email, age)
+                VALUES (nextval('customer_shard_id_seq') * ? + ?, ?, ?, ?)
+                RETURNING id
+                """;
+        Lock lock = shardRegistry.slotLock(slot).readLock();
+        lock.lock();
+        try {
+            customer.setId(shardRegistry.shardOfSlot(slot).queryForObject(
+                    sql, Integer.class,
+                    shardRegistry.slots(), slot, customer.getName(), customer.getEmail(), customer.getAge()
+            ));
+        } catch (RuntimeException e) {
+            releaseEmail(customer.getEmail());
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //customers may land on different shards and each has to claim its email first, so they go one by one
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        customers.forEach(this::insertCustomer);
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        var sql = """
+                SELECT count(*)
+                FROM customer_email_directory
+                WHERE email = ?
+                """;
+
+        Integer count = shardRegistry.directory().queryForObject(sql, Integer.class, email);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public boolean existPersonWithId(Integer id) {
+        var sql = """
+                SELECT count(id)
+                FROM customer
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                """;
+
+        Integer count = shardRegistry.shardOfCustomer(id).queryForObject(sql, Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    /**
+     * In soft-delete mode the row is only stamped with {@code deleted_at} and {@code CustomerPurgeService} removes
+     * it later, on every shard.
+     */
+    @Override
+    public void deleteCustomerById(Integer id) {
+        var sql = softDelete
+                ? """
+                UPDATE customer
+                SET deleted_at = now()
+                WHERE id = ?
+                  AND deleted_at IS NULL
+                RETURNING email
+                """
+                : """
+                DELETE
+                FROM customer
+                WHERE id = ?
+                RETURNING email
+                """;
+
+        int slot = shardRegistry.slotOf(id);
+        Lock lock = shardRegistry.slotLock(slot).readLock();
+        lock.lock();
+        try {
+            List<String> emails = shardRegistry.shardOfSlot(slot).queryForList(sql, String.class, id);
+            emails.forEach(this::releaseEmail);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateCustomer(Customer updatedCustomer) {
+        int id = updatedCustomer.getId();
+        int slot = shardRegistry.slotOf(id);
+        Lock lock = shardRegistry.slotLock(slot).readLock();
+        lock.lock();
+        try {
+            JdbcTemplate shard = shardRegistry.shardOfSlot(slot);
+            String newEmail = updatedCustomer.getEmail();
+            String previousEmail = null;
+            if (newEmail != null) {
+                previousEmail = shard.query("SELECT email FROM customer WHERE id = ? AND deleted_at IS NULL",
+                        (rs, rowNum) -> rs.getString("email"), id).stream().findFirst().orElse(null);
+                if (newEmail.equals(previousEmail)) {
+                    previousEmail = null;
+                } else {
+                    shardRegistry.directory().update(
+                            "INSERT INTO customer_email_directory(email, slot) VALUES (?, ?)", newEmail, slot
+                    );
+                }
+            }
+
+            var sql = """
+                    UPDATE customer
+                    SET name = COALESCE(?, name),
+                        email = COALESCE(?, email),
+                        age = COALESCE(?, age)
+                    WHERE id = ?
+                      AND deleted_at IS NULL
+                    """;
+            try {
+                shard.update(sql, updatedCustomer.getName(), newEmail, updatedCustomer.getAge(), id);
+            } catch (RuntimeException e) {
+                if (previousEmail != null) {
+                    releaseEmail(newEmail);
+                }
+                throw e;
+            }
+            if (previousEmail != null) {
+                releaseEmail(previousEmail);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseEmail(String email) {
+        shardRegistry.directory().update("DELETE FROM customer_email_directory WHERE email = ?", email);
+    }
+
+    private List<Customer> gather(Collection<JdbcTemplate> shards, Function<JdbcTemplate, List<Customer>> query) {
+        List<CompletableFuture<List<Customer>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatter))
+                .toList();
+        try {
+            List<Customer> merged = new ArrayList<>();
+            futures.forEach(future -> merged.addAll(future.join()));
+            merged.sort(Comparator.comparing(Customer::getId));
+            return merged;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatter.shutdownNow();
+    }
+}
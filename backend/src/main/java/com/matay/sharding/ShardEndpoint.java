@@ -0,0 +1,54 @@
+package com.matay.sharding;
+
+import com.matay.exception.ResourceNotFoundException;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Slot map and rebalancing on the management side, {@code /actuator/shards}. Not exposed unless listed in
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@WebEndpoint(id = "shards")
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "true")
+public class ShardEndpoint {
+
+    private final ShardRegistry shardRegistry;
+    private final CustomerShardRebalancer rebalancer;
+
+    public ShardEndpoint(ShardRegistry shardRegistry, CustomerShardRebalancer rebalancer) {
+        this.shardRegistry = shardRegistry;
+        this.rebalancer = rebalancer;
+    }
+
+    @ReadOperation
+    public int[] getSlotMap() {
+        return shardRegistry.slotMap();
+    }
+
+    // POST /actuator/shards/reload
+    @WriteOperation
+    public int[] reload(@Selector String action) {
+        if (!action.equals("reload")) {
+            throw new ResourceNotFoundException("Unknown shard action [%s]".formatted(action));
+        }
+        shardRegistry.reload();
+        return shardRegistry.slotMap();
+    }
+
+    // POST /actuator/shards/move/{slot} {"target": 2} and POST /actuator/shards/split/{source} {"target": 2}
+    @WriteOperation
+    public Object rebalance(@Selector String action, @Selector Integer id, Integer target) {
+        return switch (action) {
+            case "move" -> Map.of("slot", id, "shard", target, "rows", rebalancer.moveSlot(id, target));
+            case "split" -> rebalancer.splitShard(id, target);
+            default -> throw new ResourceNotFoundException("Unknown shard action [%s]".formatted(action));
+        };
+    }
+}
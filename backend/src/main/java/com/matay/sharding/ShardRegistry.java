@@ -0,0 +1,161 @@
+package com.matay.sharding;
+
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Knows the shards and which shard owns each logical slot.
+ * <p>
+ * Customer ids carry their slot in the low bits ({@code id = sequence * slots + slot}), so any id can be routed
+ * without a lookup, and moving a slot to another shard never changes ids. The slot map is persisted in
+ * {@code customer_shard_slot} on the directory shard.
+ */
+public class ShardRegistry implements AutoCloseable {
+
+    private final List<JdbcTemplate> shards;
+    private final int slots;
+    private final JdbcTemplate directory;
+    private final ReadWriteLock[] slotLocks;
+    private volatile int[] slotToShard;
+
+    public ShardRegistry(List<JdbcTemplate> shards, int slots, int directoryShard) {
+        this.shards = List.copyOf(shards);
+        this.slots = slots;
+        this.directory = shards.get(directoryShard);
+        this.slotLocks = new ReadWriteLock[slots];
+        for (int i = 0; i < slots; i++) {
+            slotLocks[i] = new ReentrantReadWriteLock();
+        }
+        initialiseSlotMap();
+        for (JdbcTemplate shard : shards) {
+            createSlotIndex(shard);
+            alignIdSequence(shard);
+        }
+    }
+
+    public List<JdbcTemplate> shards() {
+        return shards;
+    }
+
+    public JdbcTemplate directory() {
+        return directory;
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    public int slotOf(int customerId) {
+        return Math.floorMod(customerId, slots);
+    }
+
+    public int slotForEmail(String email) {
+        return Math.floorMod(email.hashCode(), slots);
+    }
+
+    public int shardIndexOfSlot(int slot) {
+        return slotToShard[slot];
+    }
+
+    public JdbcTemplate shardOfSlot(int slot) {
+        return shards.get(slotToShard[slot]);
+    }
+
+    public JdbcTemplate shardOfCustomer(int customerId) {
+        return shardOfSlot(slotOf(customerId));
+    }
+
+    /**
+     * Writes to a slot share its read lock; a slot move takes the write lock for its final catch-up.
+     */
+    public ReadWriteLock slotLock(int slot) {
+        return slotLocks[slot];
+    }
+
+    public int[] slotMap() {
+        return slotToShard.clone();
+    }
+
+    void assign(int slot, int shard) {
+        directory.update("""
+                INSERT INTO customer_shard_slot(slot, shard)
+                VALUES (?, ?)
+                ON CONFLICT (slot) DO UPDATE SET shard = excluded.shard
+                """, slot, shard);
+        int[] updated = slotToShard.clone();
+        updated[slot] = shard;
+        slotToShard = updated;
+    }
+
+    /**
+     * Re-reads the slot map, picking up moves made by other nodes.
+     */
+    public void reload() {
+        int[] map = new int[slots];
+        Arrays.fill(map, -1);
+        directory.query("SELECT slot, shard FROM customer_shard_slot", rs -> {
+            int slot = rs.getInt("slot");
+            if (slot < slots) {
+                map[slot] = rs.getInt("shard");
+            }
+        });
+        for (int slot = 0; slot < slots; slot++) {
+            if (map[slot] < 0 || map[slot] >= shards.size()) {
+                throw new IllegalStateException("Slot %s has no valid shard assigned".formatted(slot));
+            }
+        }
+        slotToShard = map;
+    }
+
+    /**
+     * @return {@code id % slots} with the slot count inlined, so the planner can match it to the slot index
+     */
+    String slotExpression() {
+        return "id %% %d".formatted(slots);
+    }
+
+    //the slot count is configuration, so the index cannot come from a migration
+    private void createSlotIndex(JdbcTemplate shard) {
+        shard.execute("CREATE INDEX IF NOT EXISTS customer_slot_%d_idx ON customer ((%s), id)"
+                .formatted(slots, slotExpression()));
+    }
+
+    /**
+     * Makes sure ids generated on the shard stay above every id already stored there, including rows
+     * copied in by a slot move.
+     */
+    void alignIdSequence(JdbcTemplate shard) {
+        shard.queryForObject("""
+                SELECT setval('customer_shard_id_seq', GREATEST(
+                        (SELECT last_value FROM customer_shard_id_seq),
+                        COALESCE((SELECT max(id) FROM customer), 0) / ? + 1
+                ))
+                """, Long.class, slots);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (JdbcTemplate shard : shards) {
+            //the pool sits behind the data source wrappers
+            AutoCloseable dataSource = DataSourceUnwrapper.unwrap(shard.getDataSource(), AutoCloseable.class);
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    private void initialiseSlotMap() {
+        Integer assigned = directory.queryForObject("SELECT count(*) FROM customer_shard_slot", Integer.class);
+        if (assigned == null || assigned == 0) {
+            for (int slot = 0; slot < slots; slot++) {
+                directory.update("INSERT INTO customer_shard_slot(slot, shard) VALUES (?, ?)", slot, slot % shards.size());
+            }
+        }
+        reload();
+    }
+}
@@ -0,0 +1,40 @@
+package com.matay.sharding;
+
+import com.matay.datasource.DataSourceWrappers;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "customer.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    ShardRegistry shardRegistry(ShardingProperties properties, DataSourceWrappers dataSourceWrappers) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("customer.sharding.shards must list at least one shard");
+        }
+
+        List<JdbcTemplate> shards = new ArrayList<>();
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(shard.url());
+            dataSource.setUsername(shard.username());
+            dataSource.setPassword(shard.password());
+
+            //every shard carries the full schema
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            //shard pools are no beans, they get the same wrappers as the main pool here
+            shards.add(new JdbcTemplate(dataSourceWrappers.wrap(dataSource)));
+        }
+        return new ShardRegistry(shards, properties.slots(), properties.directoryShard());
+    }
+}
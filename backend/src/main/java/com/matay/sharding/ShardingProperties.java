@@ -0,0 +1,21 @@
+package com.matay.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "customer.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64") int slots,
+        @DefaultValue("0") int directoryShard,
+        List<Shard> shards
+) {
+    public record Shard(String url, String username, String password) {
+    }
+
+    public ShardingProperties {
+        shards = shards != null ? shards : List.of();
+    }
+}
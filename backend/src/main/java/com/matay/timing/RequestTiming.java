@@ -0,0 +1,138 @@
+package com.matay.timing;
+
+/**
+ * Phase breakdown of the request handled by the current thread, started by {@link ServerTimingFilter} for requests
+ * that asked for it or were sampled. Phases are exclusive: entering one pauses the phase it was entered from, so
+ * the phases add up to the total. Time not spent in a more specific phase is service logic.
+ * <p>
+ * Only the request thread records. Work handed to shared threads, like coalesced lookups and parallel scans,
+ * shows up as service time spent waiting for it.
+ */
+public final class RequestTiming {
+
+    public enum Phase {
+        CONNECTION("conn", "connection acquisition"),
+        SQL("sql", "SQL"),
+        MAPPING("map", "row mapping"),
+        SERIALIZATION("ser", "serialization"),
+        SERVICE("svc", "service logic");
+
+        private final String metric;
+        private final String description;
+
+        Phase(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private long markNanos;
+    private Phase phase = Phase.SERVICE;
+    private int statements;
+    private volatile String header;
+
+    private RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+        this.markNanos = startNanos;
+    }
+
+    static RequestTiming start() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Switches the current request to {@code phase}.
+     *
+     * @return the phase to hand back to {@link #exit(Phase)}, {@code null} when the request is not timed
+     */
+    public static Phase enter(Phase phase) {
+        RequestTiming timing = CURRENT.get();
+        return timing == null ? null : timing.switchTo(phase);
+    }
+
+    public static void exit(Phase previous) {
+        if (previous != null) {
+            RequestTiming timing = CURRENT.get();
+            if (timing != null) {
+                timing.switchTo(previous);
+            }
+        }
+    }
+
+    public static void countStatement() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.statements++;
+        }
+    }
+
+    private Phase switchTo(Phase next) {
+        Phase previous = phase;
+        if (header == null) {
+            long now = System.nanoTime();
+            phaseNanos[previous.ordinal()] += now - markNanos;
+            markNanos = now;
+            phase = next;
+        }
+        return previous;
+    }
+
+    /**
+     * Stops the clock and renders the {@code Server-Timing} header value. Later calls return the same value.
+     */
+    String finish() {
+        if (header == null) {
+            long now = System.nanoTime();
+            phaseNanos[phase.ordinal()] += now - markNanos;
+            header = render(now - startNanos);
+        }
+        return header;
+    }
+
+    private String render(long totalNanos) {
+        StringBuilder value = new StringBuilder(160);
+        for (Phase each : PHASES) {
+            value.append(each.metric).append(";dur=");
+            appendMillis(value, phaseNanos[each.ordinal()]);
+            value.append(";desc=\"");
+            if (each == Phase.SQL) {
+                value.append(statements).append(statements == 1 ? " statement" : " statements");
+            } else {
+                value.append(each.description);
+            }
+            value.append("\", ");
+        }
+        value.append("total;dur=");
+        appendMillis(value, totalNanos);
+        return value.toString();
+    }
+
+    //milliseconds with microsecond precision, without going through String.format
+    private static void appendMillis(StringBuilder value, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        value.append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            value.append('0');
+        }
+        if (fraction < 10) {
+            value.append('0');
+        }
+        value.append(fraction);
+    }
+}
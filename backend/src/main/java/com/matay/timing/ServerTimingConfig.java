@@ -0,0 +1,18 @@
+package com.matay.timing;
+
+import com.matay.datasource.DataSourceWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+@ConditionalOnProperty(prefix = "customer.server-timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingConfig {
+
+    @Bean
+    @Order(2)
+    DataSourceWrapper serverTimingDataSourceWrapper() {
+        return ServerTimingDataSource::new;
+    }
+}
@@ -0,0 +1,98 @@
+package com.matay.timing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Feeds {@link RequestTiming} for timed requests: borrowing a connection is connection time, executing a
+ * statement and fetching result rows is SQL time. Connections borrowed outside a timed request are returned
+ * as they are, without proxies.
+ */
+public class ServerTimingDataSource extends DelegatingDataSource {
+
+    public ServerTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!RequestTiming.isActive()) {
+            return super.getConnection();
+        }
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.CONNECTION);
+        try {
+            return proxy(Connection.class, super.getConnection());
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!RequestTiming.isActive()) {
+            return super.getConnection(username, password);
+        }
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.CONNECTION);
+        try {
+            return proxy(Connection.class, super.getConnection(username, password));
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(
+                ServerTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                new TimingHandler(target)
+        ));
+    }
+
+    private record TimingHandler(Object target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean execute = target instanceof Statement && name.startsWith("execute");
+            boolean fetch = target instanceof ResultSet && name.equals("next");
+
+            RequestTiming.Phase previous = null;
+            if (execute || fetch) {
+                previous = RequestTiming.enter(RequestTiming.Phase.SQL);
+                if (execute) {
+                    RequestTiming.countStatement();
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                RequestTiming.exit(previous);
+            }
+
+            //statements made by the connection and the result sets they return are timed as well
+            if ((result instanceof Statement || result instanceof ResultSet)
+                    && method.getReturnType().isInterface()
+                    && !name.equals("unwrap")) {
+                return proxy(cast(method.getReturnType()), result);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<Object> cast(Class<?> type) {
+            return (Class<Object>) type;
+        }
+    }
+}
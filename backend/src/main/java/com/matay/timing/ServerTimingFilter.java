@@ -0,0 +1,216 @@
+package com.matay.timing;
+
+import com.matay.customer.CustomerRoute;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times customer requests that ask for it with the configured header, plus a random sample, and returns the phase
+ * breakdown as a {@code Server-Timing} header. Headers cannot change once the body starts, so the clock stops at
+ * the first byte written: for bodies larger than the serializer's buffer, serialization is the time to first byte.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final ServerTimingProperties properties;
+
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !properties.enabled() || !path.startsWith(CustomerRoute.CUSTOMERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isRequested(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TimingResponse timingResponse = new TimingResponse(response, RequestTiming.start());
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            RequestTiming.clear();
+            timingResponse.writeHeader();
+        }
+    }
+
+    boolean isRequested(HttpServletRequest request) {
+        String requested = request.getHeader(properties.header());
+        if (requested != null) {
+            return requested.equalsIgnoreCase("true") || requested.equals("1");
+        }
+        return properties.sampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < properties.sampleRate();
+    }
+
+    /**
+     * Adds the header right before anything can commit the response.
+     */
+    private static class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private boolean headerWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (!isCommitted()) {
+                    setHeader(SERVER_TIMING, timing.finish());
+                }
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new TimingWriter(super.getWriter(), this));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static class TimingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final TimingResponse response;
+
+        TimingOutputStream(ServletOutputStream delegate, TimingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            response.writeHeader();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            response.writeHeader();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.writeHeader();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.writeHeader();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private static class TimingWriter extends FilterWriter {
+
+        private final TimingResponse response;
+
+        TimingWriter(PrintWriter delegate, TimingResponse response) {
+            super(delegate);
+            this.response = response;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            response.writeHeader();
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            response.writeHeader();
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            response.writeHeader();
+            super.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.writeHeader();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.writeHeader();
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.matay.timing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.server-timing")
+public record ServerTimingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Server-Timing") String header,
+        @DefaultValue("0.0") double sampleRate
+) {
+}
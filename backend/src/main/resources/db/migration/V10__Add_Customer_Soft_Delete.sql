@@ -0,0 +1,74 @@
+ALTER TABLE customer
+ADD COLUMN deleted_at TIMESTAMPTZ;
+
+-- an email becomes free again as soon as its customer is soft deleted
+ALTER TABLE customer
+DROP CONSTRAINT customer_email_unique;
+
+CREATE UNIQUE INDEX customer_email_unique ON customer(email) WHERE deleted_at IS NULL;
+
+-- only soft deleted rows are indexed, the purger walks them oldest first
+CREATE INDEX customer_deleted_at_idx ON customer(deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- age counters only count live customers, a soft delete leaves them like a delete and the purge does not touch them
+CREATE OR REPLACE FUNCTION customer_age_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.deleted_at IS NULL THEN
+        UPDATE customer_age_stats
+        SET customer_count = customer_count - 1
+        WHERE age = OLD.age;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.deleted_at IS NULL THEN
+        INSERT INTO customer_age_stats(age, customer_count)
+        VALUES (NEW.age, 1)
+        ON CONFLICT (age) DO UPDATE
+        SET customer_count = customer_age_stats.customer_count + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER customer_age_stats_update ON customer;
+
+CREATE TRIGGER customer_age_stats_update
+AFTER UPDATE OF age, deleted_at ON customer
+FOR EACH ROW
+WHEN (OLD.age IS DISTINCT FROM NEW.age OR OLD.deleted_at IS DISTINCT FROM NEW.deleted_at)
+EXECUTE FUNCTION customer_age_stats_apply();
+
+-- a soft delete is announced as a DELETE, purging an already deleted row is not announced again
+CREATE OR REPLACE FUNCTION customer_track_notify() RETURNS TRIGGER AS $$
+DECLARE
+    change_type TEXT := TG_OP;
+    changed_id INT;
+    changed_seq BIGINT;
+    changed_email TEXT;
+    previous_email TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.deleted_at IS NOT NULL THEN
+            RETURN NULL;
+        END IF;
+        changed_id := OLD.id;
+        changed_email := OLD.email;
+        SELECT change_seq INTO changed_seq FROM customer_tombstone WHERE id = OLD.id;
+    ELSE
+        changed_id := NEW.id;
+        changed_email := NEW.email;
+        changed_seq := NEW.change_seq;
+        IF TG_OP = 'UPDATE' AND NEW.deleted_at IS NOT NULL THEN
+            change_type := 'DELETE';
+        ELSIF TG_OP = 'UPDATE' AND OLD.email IS DISTINCT FROM NEW.email THEN
+            previous_email := OLD.email;
+        END IF;
+    END IF;
+    PERFORM pg_notify('customer_changes', json_build_object(
+            'type', change_type,
+            'customerId', changed_id,
+            'changeSeq', changed_seq,
+            'email', changed_email,
+            'previousEmail', previous_email
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,13 @@
+-- metadata of files attached to a customer, the bytes live in the blob store under storage_key
+CREATE TABLE customer_file(
+    id BIGSERIAL PRIMARY KEY,
+    customer_id INT NOT NULL REFERENCES customer(id) ON DELETE CASCADE,
+    storage_key UUID NOT NULL UNIQUE,
+    name TEXT NOT NULL,
+    content_type TEXT NOT NULL,
+    size BIGINT NOT NULL,
+    sha256 TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX customer_file_customer_id_idx ON customer_file(customer_id);
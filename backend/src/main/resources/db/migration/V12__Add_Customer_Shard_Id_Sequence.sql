@@ -0,0 +1,4 @@
+-- sharded inserts take nextval * slots + slot as id and need a step of 1: on customer_id_seq, which steps by 50
+-- for Hibernate's pooled optimiser, every insert would use up 50 * slots ids and exhaust INT within ~671k inserts
+CREATE SEQUENCE customer_shard_id_seq;
+SELECT setval('customer_shard_id_seq', GREATEST((SELECT last_value FROM customer_id_seq), 1));
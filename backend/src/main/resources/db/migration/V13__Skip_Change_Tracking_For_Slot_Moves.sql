@@ -0,0 +1,55 @@
+-- a slot move between shards copies customers to the target and deletes them on the source; neither is a change,
+-- so inside a transaction that set customer.slot_move the delete leaves no tombstone and nothing is announced.
+-- age counters still follow the rows, they are kept per shard
+CREATE OR REPLACE FUNCTION customer_track_delete() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('customer.slot_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO customer_tombstone(id) VALUES (OLD.id)
+    ON CONFLICT (id) DO UPDATE
+    SET change_seq = nextval('customer_change_seq'),
+        change_xid = pg_current_xact_id(),
+        deleted_at = now();
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION customer_track_notify() RETURNS TRIGGER AS $$
+DECLARE
+    change_type TEXT := TG_OP;
+    changed_id INT;
+    changed_seq BIGINT;
+    changed_email TEXT;
+    previous_email TEXT;
+BEGIN
+    IF current_setting('customer.slot_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.deleted_at IS NOT NULL THEN
+            RETURN NULL;
+        END IF;
+        changed_id := OLD.id;
+        changed_email := OLD.email;
+        SELECT change_seq INTO changed_seq FROM customer_tombstone WHERE id = OLD.id;
+    ELSE
+        changed_id := NEW.id;
+        changed_email := NEW.email;
+        changed_seq := NEW.change_seq;
+        IF TG_OP = 'UPDATE' AND NEW.deleted_at IS NOT NULL THEN
+            change_type := 'DELETE';
+        ELSIF TG_OP = 'UPDATE' AND OLD.email IS DISTINCT FROM NEW.email THEN
+            previous_email := OLD.email;
+        END IF;
+    END IF;
+    PERFORM pg_notify('customer_changes', json_build_object(
+            'type', change_type,
+            'customerId', changed_id,
+            'changeSeq', changed_seq,
+            'email', changed_email,
+            'previousEmail', previous_email
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
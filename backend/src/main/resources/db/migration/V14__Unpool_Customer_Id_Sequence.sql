@@ -0,0 +1,3 @@
+-- with a step of 50 every insert through the column default (JDBC DAO, dataset COPY) used up 50 ids and would exhaust
+-- INT within ~43M inserts; Hibernate now takes its blocks of 50 with one query instead (CustomerIdGenerator)
+ALTER SEQUENCE customer_id_seq INCREMENT BY 1;
@@ -0,0 +1,34 @@
+CREATE TABLE customer_age_stats(
+    age INT PRIMARY KEY,
+    customer_count BIGINT NOT NULL
+);
+
+CREATE FUNCTION customer_age_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE customer_age_stats
+        SET customer_count = customer_count - 1
+        WHERE age = OLD.age;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO customer_age_stats(age, customer_count)
+        VALUES (NEW.age, 1)
+        ON CONFLICT (age) DO UPDATE
+        SET customer_count = customer_age_stats.customer_count + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_age_stats_insert_delete
+AFTER INSERT OR DELETE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_age_stats_apply();
+
+CREATE TRIGGER customer_age_stats_update
+AFTER UPDATE OF age ON customer
+FOR EACH ROW
+WHEN (OLD.age IS DISTINCT FROM NEW.age)
+EXECUTE FUNCTION customer_age_stats_apply();
+
+INSERT INTO customer_age_stats(age, customer_count)
+SELECT age, count(*) FROM customer GROUP BY age;
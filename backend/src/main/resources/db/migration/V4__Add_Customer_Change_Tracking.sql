@@ -0,0 +1,43 @@
+CREATE SEQUENCE customer_change_seq;
+
+ALTER TABLE customer
+ADD COLUMN change_seq BIGINT NOT NULL DEFAULT nextval('customer_change_seq'),
+ADD COLUMN change_xid XID8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX customer_change_seq_idx ON customer(change_seq);
+
+CREATE TABLE customer_tombstone(
+    id INT PRIMARY KEY,
+    change_seq BIGINT NOT NULL DEFAULT nextval('customer_change_seq'),
+    change_xid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX customer_tombstone_change_seq_idx ON customer_tombstone(change_seq);
+
+CREATE FUNCTION customer_track_update() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.change_seq := nextval('customer_change_seq');
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION customer_track_delete() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO customer_tombstone(id) VALUES (OLD.id)
+    ON CONFLICT (id) DO UPDATE
+    SET change_seq = nextval('customer_change_seq'),
+        change_xid = pg_current_xact_id(),
+        deleted_at = now();
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_track_update
+BEFORE UPDATE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_track_update();
+
+CREATE TRIGGER customer_track_delete
+AFTER DELETE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_track_delete();
@@ -0,0 +1,25 @@
+-- fired after customer_track_delete (triggers run in name order) so the tombstone sequence is known
+CREATE FUNCTION customer_track_notify() RETURNS TRIGGER AS $$
+DECLARE
+    changed_id INT;
+    changed_seq BIGINT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed_id := OLD.id;
+        SELECT change_seq INTO changed_seq FROM customer_tombstone WHERE id = OLD.id;
+    ELSE
+        changed_id := NEW.id;
+        changed_seq := NEW.change_seq;
+    END IF;
+    PERFORM pg_notify('customer_changes', json_build_object(
+            'type', TG_OP,
+            'customerId', changed_id,
+            'changeSeq', changed_seq
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_track_notify
+AFTER INSERT OR UPDATE OR DELETE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_track_notify();
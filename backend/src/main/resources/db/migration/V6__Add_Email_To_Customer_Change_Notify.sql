@@ -0,0 +1,30 @@
+-- emails are included so near-caches can invalidate their email lookups
+CREATE OR REPLACE FUNCTION customer_track_notify() RETURNS TRIGGER AS $$
+DECLARE
+    changed_id INT;
+    changed_seq BIGINT;
+    changed_email TEXT;
+    previous_email TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed_id := OLD.id;
+        changed_email := OLD.email;
+        SELECT change_seq INTO changed_seq FROM customer_tombstone WHERE id = OLD.id;
+    ELSE
+        changed_id := NEW.id;
+        changed_email := NEW.email;
+        changed_seq := NEW.change_seq;
+        IF TG_OP = 'UPDATE' AND OLD.email IS DISTINCT FROM NEW.email THEN
+            previous_email := OLD.email;
+        END IF;
+    END IF;
+    PERFORM pg_notify('customer_changes', json_build_object(
+            'type', TG_OP,
+            'customerId', changed_id,
+            'changeSeq', changed_seq,
+            'email', changed_email,
+            'previousEmail', previous_email
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,10 @@
+-- only used on the directory shard when customer.sharding is enabled
+CREATE TABLE customer_email_directory(
+    email TEXT PRIMARY KEY,
+    slot INT NOT NULL
+);
+
+CREATE TABLE customer_shard_slot(
+    slot INT PRIMARY KEY,
+    shard INT NOT NULL
+);
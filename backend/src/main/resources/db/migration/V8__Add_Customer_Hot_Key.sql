@@ -0,0 +1,7 @@
+-- ids the near-caches served most often, used to pre-warm caches after a restart
+CREATE TABLE customer_hot_key(
+    customer_id INT PRIMARY KEY,
+    recorded_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX customer_hot_key_recorded_at_idx ON customer_hot_key(recorded_at);
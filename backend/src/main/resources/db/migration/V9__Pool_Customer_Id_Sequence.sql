@@ -0,0 +1,2 @@
+-- matches allocationSize = 50 on Customer: Hibernate's pooled optimiser hands out 50 ids per nextval
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
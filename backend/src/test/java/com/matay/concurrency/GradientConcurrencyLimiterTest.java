@@ -0,0 +1,109 @@
+package com.matay.concurrency;
+
+import com.matay.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradientConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaseline() {
+        //GIVEN
+        GradientConcurrencyLimiter underTest = new GradientConcurrencyLimiter(true, 10, 2, 100, 0, 0);
+
+        //WHEN
+        saturate(underTest, 200, MILLI);
+
+        //THEN
+        assertThat(underTest.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void limitShrinksWhenDatabaseSlowsDown() {
+        //GIVEN
+        GradientConcurrencyLimiter underTest = new GradientConcurrencyLimiter(true, 50, 2, 100, 0, 0);
+        saturate(underTest, 200, MILLI);
+        int limitAtBaseline = underTest.getLimit();
+
+        //WHEN
+        saturate(underTest, 50, 20 * MILLI);
+
+        //THEN
+        assertThat(underTest.getLimit()).isLessThan(limitAtBaseline / 2);
+    }
+
+    @Test
+    void rejectsWhenLimitIsReachedAndQueueIsFull() {
+        //GIVEN
+        GradientConcurrencyLimiter underTest = new GradientConcurrencyLimiter(true, 1, 1, 1, 0, 0);
+        underTest.acquire();
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(underTest::acquire)
+                .isInstanceOf(ServiceOverloadedException.class)
+                .hasMessage("Database is at its concurrency limit, please retry later");
+        assertThat(underTest.getRejectedCount()).isEqualTo(1);
+        assertThat(underTest.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedCallerProceedsOnceASlotIsReleased() throws Exception {
+        //GIVEN
+        GradientConcurrencyLimiter underTest = new GradientConcurrencyLimiter(true, 1, 1, 1, 5_000, 10);
+        underTest.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+
+        //WHEN
+        Future<String> queued = executor.submit(() -> {
+            started.countDown();
+            return underTest.execute(() -> "done");
+        });
+        started.await();
+        Thread.sleep(50);
+        underTest.release(MILLI, true);
+
+        //THEN
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        executor.shutdownNow();
+    }
+
+    @Test
+    void exposesMetrics() {
+        //GIVEN
+        GradientConcurrencyLimiter underTest = new GradientConcurrencyLimiter(true, 10, 2, 100, 0, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        //WHEN
+        underTest.bindTo(registry);
+
+        //THEN
+        assertThat(registry.get("customer.dao.concurrency.limit").gauge().value()).isEqualTo(10);
+        assertThat(registry.get("customer.dao.concurrency.in-flight").gauge().value()).isZero();
+    }
+
+    //keeps the limiter fully used and reports the given latency for every operation
+    private static void saturate(GradientConcurrencyLimiter limiter, int rounds, long rttNanos) {
+        for (int i = 0; i < rounds; i++) {
+            int slots = limiter.getLimit();
+            for (int j = 0; j < slots; j++) {
+                limiter.acquire();
+            }
+            for (int j = 0; j < slots; j++) {
+                limiter.release(rttNanos, true);
+            }
+        }
+    }
+}
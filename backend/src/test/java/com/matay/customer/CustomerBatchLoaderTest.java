@@ -0,0 +1,226 @@
+package com.matay.customer;
+
+import com.matay.deadline.RequestDeadline;
+import com.matay.exception.DatabaseUnavailableException;
+import com.matay.resilience.PartialStaleReadException;
+import com.matay.resilience.StaleCustomer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchLoaderTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private final CustomerNearCache customerNearCache = new CustomerNearCache(false, 0, 0);
+    private CustomerBatchLoader underTest;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBatchLoader(customerDao, customerNearCache, true, 200_000, 64);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        underTest.shutdown();
+    }
+
+    @Test
+    void concurrentLookupsAreCoalescedIntoOneQuery() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(anyCollection())).thenReturn(List.of(
+                new Customer(1, "Matay", "matay@code.com", 25),
+                new Customer(2, "Yatam", "yatam@code.com", 52)
+        ));
+
+        //WHEN
+        List<CompletableFuture<Optional<Customer>>> futures = IntStream.of(1, 2, 1, 2, 3)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> underTest.load(id), executor))
+                .toList();
+
+        //THEN
+        assertThat(futures.get(0).join()).hasValueSatisfying(c -> assertThat(c.getId()).isEqualTo(1));
+        assertThat(futures.get(3).join()).hasValueSatisfying(c -> assertThat(c.getId()).isEqualTo(2));
+        assertThat(futures.get(4).join()).isEmpty();
+        verify(customerDao, times(1)).selectCustomersByIds(anyCollection());
+        verify(customerDao, never()).selectCustomerById(any());
+        assertThat(underTest.getQueryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchIsDispatchedOnceMaxBatchSizeIsReached() {
+        //GIVEN
+        underTest = new CustomerBatchLoader(customerDao, customerNearCache, true, 60_000_000, 1);
+        when(customerDao.selectCustomersByIds(List.of(1))).thenReturn(List.of(
+                new Customer(1, "Matay", "matay@code.com", 25)
+        ));
+
+        //WHEN
+        Optional<Customer> actual = underTest.load(1);
+
+        //THEN
+        assertThat(actual).isPresent();
+    }
+
+    @Test
+    void lookupsDoNotJoinABatchThatWasAlreadySent() throws Exception {
+        //GIVEN
+        underTest = new CustomerBatchLoader(customerDao, customerNearCache, true, 60_000_000, 1);
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Customer> row = new AtomicReference<>(new Customer(1, "Matay", "matay@code.com", 25));
+        when(customerDao.selectCustomersByIds(List.of(1))).thenAnswer(invocation -> {
+            Customer read = row.get();
+            if (sent.getCount() > 0) {
+                sent.countDown();
+                release.await();
+            }
+            return List.of(read);
+        });
+        CompletableFuture<Optional<Customer>> first = CompletableFuture.supplyAsync(() -> underTest.load(1), executor);
+        sent.await();
+
+        //WHEN
+        //a write commits while the first batch is still running
+        row.set(new Customer(1, "Matay", "matay@new.com", 25));
+        CompletableFuture<Optional<Customer>> second = CompletableFuture.supplyAsync(() -> underTest.load(1), executor);
+
+        //THEN
+        assertThat(second.get(5, TimeUnit.SECONDS)).hasValueSatisfying(
+                customer -> assertThat(customer.getEmail()).isEqualTo("matay@new.com"));
+        release.countDown();
+        assertThat(first.join()).hasValueSatisfying(
+                customer -> assertThat(customer.getEmail()).isEqualTo("matay@code.com"));
+        verify(customerDao, times(2)).selectCustomersByIds(List.of(1));
+    }
+
+    @Test
+    void willPropagateDaoFailureToEveryWaiter() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(anyCollection())).thenThrow(new IllegalStateException("db down"));
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.load(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+    }
+
+    @Test
+    void willCompleteEveryWaiterWhenTheDaoFailsWithAnError() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(anyCollection())).thenThrow(new AssertionError("broken"));
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.load(1))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("broken");
+    }
+
+    @Test
+    void waitersOnTheSameIdGetTheirOwnCopy() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(anyCollection())).thenReturn(List.of(
+                new Customer(1, "Matay", "matay@code.com", 25)
+        ));
+
+        //WHEN
+        List<CompletableFuture<Optional<Customer>>> futures = IntStream.of(1, 1)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> underTest.load(id), executor))
+                .toList();
+        Customer first = futures.get(0).join().orElseThrow();
+        Customer second = futures.get(1).join().orElseThrow();
+        first.setName("Uncommitted");
+
+        //THEN
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Matay");
+    }
+
+    @Test
+    void batchQueryRunsUnderTheLatestDeadlineOfItsWaiters() {
+        //GIVEN
+        AtomicLong remainingDuringQuery = new AtomicLong();
+        when(customerDao.selectCustomersByIds(anyCollection())).thenAnswer(invocation -> {
+            remainingDuringQuery.set(RequestDeadline.remainingNanos());
+            return List.of();
+        });
+
+        //WHEN
+        List<CompletableFuture<Optional<Customer>>> futures = List.of(Duration.ofSeconds(1), Duration.ofSeconds(5))
+                .stream()
+                .map(timeout -> CompletableFuture.supplyAsync(() -> {
+                    RequestDeadline.set(timeout);
+                    try {
+                        return underTest.load(timeout.toSecondsPart());
+                    } finally {
+                        RequestDeadline.clear();
+                    }
+                }, executor))
+                .toList();
+        futures.forEach(CompletableFuture::join);
+
+        //THEN
+        verify(customerDao, times(1)).selectCustomersByIds(anyCollection());
+        assertThat(remainingDuringQuery.get()).isBetween(Duration.ofSeconds(1).toNanos(), Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    void willQueryDaoDirectlyWhenDisabled() {
+        //GIVEN
+        underTest = new CustomerBatchLoader(customerDao, customerNearCache, false, 1000, 64);
+
+        //WHEN
+        underTest.load(1);
+
+        //THEN
+        verify(customerDao).selectCustomerById(1);
+        verify(customerDao, never()).selectCustomersByIds(anyCollection());
+    }
+
+    @Test
+    void lookupsAnsweredStaleCompleteWhenTheRestOfTheBatchFails() {
+        //GIVEN
+        StaleCustomer stale = new StaleCustomer(new Customer(1, "Matay", "matay@code.com", 25), Duration.ofSeconds(30));
+        when(customerDao.selectCustomersByIds(anyCollection())).thenThrow(
+                new PartialStaleReadException(List.of(stale), new DatabaseUnavailableException("down"))
+        );
+
+        //WHEN
+        List<CompletableFuture<Optional<Customer>>> futures = IntStream.of(1, 2)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> underTest.load(id), executor))
+                .toList();
+
+        //THEN
+        assertThat(futures.get(0).join()).hasValueSatisfying(customer -> {
+            assertThat(customer).isInstanceOf(StaleCustomer.class);
+            assertThat(((StaleCustomer) customer).staleness()).isEqualTo(Duration.ofSeconds(30));
+        });
+        assertThatThrownBy(() -> futures.get(1).join()).hasCauseInstanceOf(PartialStaleReadException.class);
+    }
+}
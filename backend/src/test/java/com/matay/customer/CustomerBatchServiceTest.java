@@ -0,0 +1,97 @@
+package com.matay.customer;
+
+import com.matay.exception.DuplicateResourceException;
+import com.matay.exception.RequestValidationException;
+import com.matay.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.matay.customer.CustomerBatchOperation.Type.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private CustomerBatchService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBatchService(customerService, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void executesOperationsInOrderAndMapsErrorsPerItem() {
+        //GIVEN
+        Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+        when(customerService.getCustomerById(1)).thenReturn(customer);
+        Customer registered = new Customer(3, "Matay", "matay@code.com", 25);
+        when(customerService.addCustomer(new CustomerRegistrationRequest("Matay", "matay@code.com", 25)))
+                .thenReturn(registered);
+        doThrow(new ResourceNotFoundException("Customer with id [2] not found"))
+                .when(customerService).deleteCustomerById(2);
+
+        CustomerBatchRequest request = new CustomerBatchRequest(false, List.of(
+                new CustomerBatchOperation(REGISTER, null, "Matay", "matay@code.com", 25),
+                new CustomerBatchOperation(DELETE, 2, null, null, null),
+                new CustomerBatchOperation(GET, 1, null, null, null),
+                new CustomerBatchOperation(UPDATE, null, "Yatam", null, null)
+        ));
+
+        //WHEN
+        List<CustomerBatchResult> actual = underTest.execute(request);
+
+        //THEN
+        assertThat(actual).extracting(CustomerBatchResult::status).containsExactly(200, 404, 200, 400);
+        assertThat(actual.get(0).customer()).isEqualTo(registered);
+        assertThat(actual.get(2).customer()).isEqualTo(customer);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void atomicBatchStopsAndRollsBackOnFirstFailure() {
+        //GIVEN
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        doThrow(new DuplicateResourceException("Email already in use. Please choose a different email address."))
+                .when(customerService).addCustomer(any());
+
+        CustomerBatchRequest request = new CustomerBatchRequest(true, List.of(
+                new CustomerBatchOperation(UPDATE, 1, "Yatam", null, null),
+                new CustomerBatchOperation(REGISTER, null, "Matay", "matay@code.com", 25),
+                new CustomerBatchOperation(DELETE, 1, null, null, null)
+        ));
+
+        //WHEN
+        List<CustomerBatchResult> actual = underTest.execute(request);
+
+        //THEN
+        //the update before the failure was rolled back with the rest
+        assertThat(actual).extracting(CustomerBatchResult::status).containsExactly(424, 409, 424);
+        assertThat(actual.get(0).error()).isEqualTo("Rolled back, batch failed");
+        assertThat(status.isRollbackOnly()).isTrue();
+        verify(customerService, never()).deleteCustomerById(any());
+    }
+
+    @Test
+    void willThrowWhenBatchIsEmpty() {
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.execute(new CustomerBatchRequest(true, List.of())))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Batch must contain at least one operation");
+    }
+}
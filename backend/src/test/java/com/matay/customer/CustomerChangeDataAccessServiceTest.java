@@ -0,0 +1,63 @@
+package com.matay.customer;
+
+import com.matay.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeDataAccessServiceTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private CustomerChangeDataAccessService underTest;
+    private CustomerJDBCDataAccessService customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerChangeDataAccessService(jdbcTemplate, new CustomerRowMapper());
+        customerDao = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), false);
+    }
+
+    @Test
+    void returnsInsertUpdateAndDeleteAfterToken() {
+        //GIVEN
+        Long since = jdbcTemplate.queryForObject("SELECT last_value FROM customer_change_seq", Long.class);
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        int id = customerDao.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        //WHEN
+        List<CustomerChangeDataAccessService.ChangeRow> inserted = underTest.selectChangesSince(since, 100);
+
+        Customer update = new Customer();
+        update.setId(id);
+        update.setAge(31);
+        customerDao.updateCustomer(update);
+        List<CustomerChangeDataAccessService.ChangeRow> updated =
+                underTest.selectChangesSince(inserted.get(inserted.size() - 1).changeSeq(), 100);
+
+        customerDao.deleteCustomerById(id);
+        List<CustomerChangeDataAccessService.ChangeRow> deleted =
+                underTest.selectChangesSince(updated.get(updated.size() - 1).changeSeq(), 100);
+
+        //THEN
+        assertThat(inserted).extracting(row -> row.change().customerId()).contains(id);
+        assertThat(updated).singleElement().satisfies(row -> {
+            assertThat(row.change().type()).isEqualTo(CustomerChange.Type.UPSERT);
+            assertThat(row.change().customer().getAge()).isEqualTo(31);
+        });
+        assertThat(deleted).singleElement().satisfies(row -> {
+            assertThat(row.change().type()).isEqualTo(CustomerChange.Type.DELETE);
+            assertThat(row.change().customerId()).isEqualTo(id);
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matay.AbstractTestcontainers;
+import com.matay.sharding.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CustomerChangeListenerTest extends AbstractTestcontainers {
+
+    private final CustomerChangeSubscriber customerChangeSubscriber = mock(CustomerChangeSubscriber.class);
+    private CustomerChangeListener underTest;
+
+    @BeforeEach
+    void setUp() {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(postgreSQLContainer.getJdbcUrl());
+        dataSourceProperties.setUsername(postgreSQLContainer.getUsername());
+        dataSourceProperties.setPassword(postgreSQLContainer.getPassword());
+
+        underTest = new CustomerChangeListener(
+                dataSourceProperties, new ShardingProperties(false, 64, 0, List.of()),
+                List.of(customerChangeSubscriber), new ObjectMapper(), true, 100
+        );
+        underTest.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    void resyncsOnConnect() {
+        //THEN
+        verify(customerChangeSubscriber, timeout(5000)).onResync();
+    }
+
+    @Test
+    void publishesNotificationForInsert() {
+        //GIVEN
+        CustomerJDBCDataAccessService customerDao =
+                new CustomerJDBCDataAccessService(getJdbcTemplate(), new CustomerRowMapper(), false);
+        //subscribers are resynced once LISTEN has been issued
+        verify(customerChangeSubscriber, timeout(5000)).onResync();
+
+        //WHEN
+        customerDao.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                20
+        ));
+
+        //THEN
+        verify(customerChangeSubscriber, timeout(5000)).onChange(argThat(event ->
+                event.type().equals("INSERT") && event.customerId() != null && event.changeSeq() != null
+        ));
+    }
+}
@@ -0,0 +1,80 @@
+package com.matay.customer;
+
+import com.matay.exception.RequestValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeServiceTest {
+
+    @Mock
+    private CustomerChangeDataAccessService customerChangeDataAccessService;
+    private CustomerChangeService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerChangeService(customerChangeDataAccessService);
+    }
+
+    @Test
+    void returnsPageWithTokenOfLastChange() {
+        //GIVEN
+        Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+        when(customerChangeDataAccessService.selectChangesSince(10, 3)).thenReturn(List.of(
+                new CustomerChangeDataAccessService.ChangeRow(11, new CustomerChange(CustomerChange.Type.UPSERT, 1, customer)),
+                new CustomerChangeDataAccessService.ChangeRow(14, new CustomerChange(CustomerChange.Type.DELETE, 2, null)),
+                new CustomerChangeDataAccessService.ChangeRow(15, new CustomerChange(CustomerChange.Type.DELETE, 3, null))
+        ));
+
+        //WHEN
+        CustomerChanges actual = underTest.getChangesSince("10", 2);
+
+        //THEN
+        assertThat(actual.changes()).extracting(CustomerChange::customerId).containsExactly(1, 2);
+        assertThat(actual.nextToken()).isEqualTo("14");
+        assertThat(actual.hasMore()).isTrue();
+    }
+
+    @Test
+    void keepsTokenWhenThereAreNoChanges() {
+        //GIVEN
+        when(customerChangeDataAccessService.selectChangesSince(42, CustomerChangeService.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(List.of());
+
+        //WHEN
+        CustomerChanges actual = underTest.getChangesSince("42", null);
+
+        //THEN
+        assertThat(actual.changes()).isEmpty();
+        assertThat(actual.nextToken()).isEqualTo("42");
+        assertThat(actual.hasMore()).isFalse();
+    }
+
+    @Test
+    void startsFromBeginningWithoutToken() {
+        //WHEN
+        underTest.getChangesSince(null, 5);
+
+        //THEN
+        verify(customerChangeDataAccessService).selectChangesSince(0, 6);
+    }
+
+    @Test
+    void willThrowWhenTokenIsInvalid() {
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.getChangesSince("abc", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Invalid change token [abc]");
+    }
+}
@@ -0,0 +1,79 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportServiceTest {
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+    @Mock
+    private CustomerJPADataAccessService customerJpaDao;
+    @Mock
+    private CustomerRoutingDataAccessService routing;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CustomerExportService underTest;
+
+    private final Customer first = new Customer(1, "Matay", "matay@code.com", 25);
+    private final Customer second = new Customer(2, "Yatam", "yatam@code.com", 52);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerExportService(customerDao, customerJpaDao, routing, objectMapper, 2);
+    }
+
+    @Test
+    void streamsFromTheJpaCursorWhenJpaIsThePrimary() throws Exception {
+        //GIVEN
+        when(routing.getPrimaryName()).thenReturn("jpa");
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(customerJpaDao).forEachCustomer(eq(true), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //WHEN
+        underTest.export(out, true);
+
+        //THEN
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n"
+        );
+        verifyNoInteractions(customerDao);
+        verify(routing, never()).selectAllCustomers();
+    }
+
+    @Test
+    void readsOtherStoresThroughThePrimaryInIdOrder() throws Exception {
+        //GIVEN
+        when(routing.getPrimaryName()).thenReturn("sharded");
+        when(routing.selectAllCustomers()).thenReturn(List.of(second, first));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //WHEN
+        underTest.export(out, true);
+
+        //THEN
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n"
+        );
+        verifyNoInteractions(customerDao, customerJpaDao);
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.shaded.org.checkerframework.checker.units.qual.C;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,7 +23,8 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
     void setUp() {
         underTest = new CustomerJDBCDataAccessService(
                 getJdbcTemplate(),
-                customerRowMapper
+                customerRowMapper,
+                false
         );
     }
 
@@ -84,6 +87,76 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isEmpty();
     }
 
+    @Test
+    void selectCustomersByIds() {
+        //GIVEN
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                20
+        );
+        underTest.insertCustomer(customer);
+
+        int id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        //WHEN
+        List<Customer> actual = underTest.selectCustomersByIds(List.of(id, -1));
+
+        //THEN
+        assertThat(actual).hasSize(1)
+                .first()
+                .satisfies(c -> assertThat(c.getEmail()).isEqualTo(email));
+    }
+
+    @Test
+    void scanAllCustomersInOrder() {
+        //GIVEN
+        for (int i = 0; i < 50; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                    20
+            ));
+        }
+        List<Customer> expected = underTest.selectAllCustomers()
+                .stream()
+                .sorted(Comparator.comparing(Customer::getId))
+                .toList();
+
+        //WHEN
+        List<Customer> actual = new ArrayList<>();
+        underTest.scanAllCustomers(3, true, actual::add);
+
+        //THEN
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void scanAllCustomersUnordered() {
+        //GIVEN
+        for (int i = 0; i < 50; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                    20
+            ));
+        }
+        List<Customer> expected = underTest.selectAllCustomers();
+
+        //WHEN
+        List<Customer> actual = new ArrayList<>();
+        underTest.scanAllCustomers(4, false, actual::add);
+
+        //THEN
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
     @Test
     void insertCustomer() {
         //GIVEN
@@ -107,6 +180,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         Optional<Customer> actual = underTest.selectCustomerById(id);
 
         //THEN
+        assertThat(customer.getId()).isEqualTo(id);
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
             assertThat(c.getId()).isEqualTo(id);
             assertThat(c.getEmail()).isEqualTo(email);
@@ -115,6 +189,29 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         });
     }
 
+    @Test
+    void insertCustomers() {
+        //GIVEN
+        String suffix = "-" + UUID.randomUUID();
+        List<Customer> customers = List.of(
+                new Customer(FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + suffix, 25),
+                new Customer(FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + suffix, 52)
+        );
+
+        //WHEN
+        underTest.insertCustomers(customers);
+
+        //THEN
+        List<String> emails = underTest.selectAllCustomers()
+                .stream()
+                .map(Customer::getEmail)
+                .filter(email -> email.endsWith(suffix))
+                .toList();
+        assertThat(emails).containsExactlyInAnyOrderElementsOf(
+                customers.stream().map(Customer::getEmail).toList()
+        );
+    }
+
     @Test
     void existsPersonWithEmail() {
         //GIVEN
@@ -200,6 +297,61 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isNotPresent();
     }
 
+    @Test
+    void softDeleteCustomerByIdHidesRowAndFreesEmail() {
+        //GIVEN
+        underTest = new CustomerJDBCDataAccessService(getJdbcTemplate(), customerRowMapper, true);
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 66));
+
+        int id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        //WHEN
+        underTest.deleteCustomerById(id);
+
+        //THEN
+        assertThat(underTest.selectCustomerById(id)).isNotPresent();
+        assertThat(underTest.selectCustomersByIds(List.of(id))).isEmpty();
+        assertThat(underTest.selectAllCustomers()).extracting(Customer::getId).doesNotContain(id);
+        assertThat(underTest.existPersonWithId(id)).isFalse();
+        assertThat(underTest.existsPersonWithEmail(email)).isFalse();
+        assertThat(getJdbcTemplate().queryForObject(
+                "SELECT count(*) FROM customer WHERE id = ? AND deleted_at IS NOT NULL", Integer.class, id
+        )).isEqualTo(1);
+
+        //the partial unique index only covers live rows
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        assertThat(underTest.existsPersonWithEmail(email)).isTrue();
+    }
+
+    @Test
+    void willNotUpdateSoftDeletedCustomer() {
+        //GIVEN
+        underTest = new CustomerJDBCDataAccessService(getJdbcTemplate(), customerRowMapper, true);
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 66));
+
+        int id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+        underTest.deleteCustomerById(id);
+
+        //WHEN
+        underTest.updateCustomer(new Customer(id, "Resurrected", null, 99));
+
+        //THEN
+        String name = getJdbcTemplate().queryForObject("SELECT name FROM customer WHERE id = ?", String.class, id);
+        assertThat(name).isNotEqualTo("Resurrected");
+    }
+
     @Test
     void updateCustomerName() {
         //GIVEN
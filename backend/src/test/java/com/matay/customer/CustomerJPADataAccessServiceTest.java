@@ -6,7 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CustomerJPADataAccessServiceTest {
 
@@ -19,7 +26,7 @@ class CustomerJPADataAccessServiceTest {
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerJPADataAccessService(customerRepository);
+        underTest = new CustomerJPADataAccessService(customerRepository, false);
     }
 
     @AfterEach
@@ -29,12 +36,18 @@ class CustomerJPADataAccessServiceTest {
 
     @Test
     void selectAllCustomers() {
+        //GIVEN
+        when(customerRepository.streamAllCustomers()).thenReturn(Stream.of(
+                new Customer(1, "matay", "matay@code.com", 25)
+        ));
+
         //WHEN
-        underTest.selectAllCustomers();
+        List<Customer> actual = underTest.selectAllCustomers();
 
         //THEN
+        assertThat(actual).hasSize(1);
         verify(customerRepository)
-                .findAll();
+                .streamAllCustomers();
     }
 
     @Test
@@ -47,7 +60,20 @@ class CustomerJPADataAccessServiceTest {
 
         //THEN
         verify(customerRepository)
-                .findById(id);
+                .findCustomerById(id);
+    }
+
+    @Test
+    void selectCustomersByIds() {
+        //GIVEN
+        List<Integer> ids = List.of(1, 2);
+
+        //WHEN
+        underTest.selectCustomersByIds(ids);
+
+        //THEN
+        verify(customerRepository)
+                .findCustomersByIds(ids);
     }
 
     @Test
@@ -64,6 +90,53 @@ class CustomerJPADataAccessServiceTest {
         verify(customerRepository).save(customer);
     }
 
+    @Test
+    void forEachCustomer() {
+        //GIVEN
+        when(customerRepository.streamAllCustomers()).thenReturn(Stream.of(
+                new Customer(1, "matay", "matay@code.com", 25),
+                new Customer(2, "yatam", "yatam@code.com", 52)
+        ));
+        List<Customer> actual = new ArrayList<>();
+
+        //WHEN
+        underTest.forEachCustomer(false, actual::add);
+
+        //THEN
+        assertThat(actual).extracting(Customer::getId).containsExactly(1, 2);
+    }
+
+    @Test
+    void forEachCustomerInIdOrder() {
+        //GIVEN
+        when(customerRepository.streamAllCustomersOrderedById()).thenReturn(Stream.of(
+                new Customer(1, "matay", "matay@code.com", 25)
+        ));
+        List<Customer> actual = new ArrayList<>();
+
+        //WHEN
+        underTest.forEachCustomer(true, actual::add);
+
+        //THEN
+        assertThat(actual).extracting(Customer::getId).containsExactly(1);
+        verify(customerRepository, never()).streamAllCustomers();
+    }
+
+    @Test
+    void insertCustomers() {
+        //GIVEN
+        List<Customer> customers = List.of(
+                new Customer("matay", "matay@code.com", 25),
+                new Customer("yatam", "yatam@code.com", 52)
+        );
+
+        //WHEN
+        underTest.insertCustomers(customers);
+
+        //THEN
+        verify(customerRepository).saveAll(customers);
+    }
+
     @Test
     void existsPersonWithEmail() {
         //GIVEN
@@ -97,7 +170,21 @@ class CustomerJPADataAccessServiceTest {
         underTest.deleteCustomerById(id);
 
         //THEN
-        verify(customerRepository).deleteById(id);
+        verify(customerRepository).deleteCustomerById(id);
+    }
+
+    @Test
+    void softDeleteCustomerById() {
+        //GIVEN
+        underTest = new CustomerJPADataAccessService(customerRepository, true);
+        int id = 1;
+
+        //WHEN
+        underTest.deleteCustomerById(id);
+
+        //THEN
+        verify(customerRepository).softDeleteCustomerById(id);
+        verify(customerRepository, never()).deleteCustomerById(id);
     }
 
     @Test
@@ -111,6 +198,6 @@ class CustomerJPADataAccessServiceTest {
         underTest.updateCustomer(customer);
 
         //THEN
-        verify(customerRepository).save(customer);
+        verify(customerRepository).updateCustomer(1, "matay", "matay@code.com", 25);
     }
 }
\ No newline at end of file
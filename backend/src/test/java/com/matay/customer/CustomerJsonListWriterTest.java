@@ -0,0 +1,124 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matay.concurrency.GradientConcurrencyLimiter;
+import com.matay.exception.DatabaseUnavailableException;
+import com.matay.resilience.CircuitBreaker;
+import com.matay.resilience.CircuitBreakerProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerJsonListWriterTest {
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+    @Mock
+    private CustomerService customerService;
+    @Mock
+    private CustomerRoutingDataAccessService routing;
+    @Mock
+    private ResultSet rs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(true, 10, 2, 100, 0, 0);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(new CircuitBreakerProperties(
+            true, 10, 4, 0.5, Duration.ofSeconds(1), 0.8, Duration.ofSeconds(10), 2
+    ));
+
+    private final List<Customer> customers = List.of(
+            new Customer(1, "Matay \"the\" coder", "matay@code.com", 25),
+            new Customer(2, "Yatam", "yatam@code.com", 52)
+    );
+
+    @Test
+    void streamsRowsInTheSameShapeAsJackson() throws Exception {
+        //GIVEN
+        CustomerJsonListWriter underTest =
+                new CustomerJsonListWriter(customerDao, customerService, objectMapper, routing, limiter, circuitBreaker, true);
+        when(routing.getPrimaryName()).thenReturn("jdbc");
+        when(rs.getInt(1)).thenReturn(1, 2);
+        when(rs.getString(2)).thenReturn(customers.get(0).getName(), customers.get(1).getName());
+        when(rs.getString(3)).thenReturn(customers.get(0).getEmail(), customers.get(1).getEmail());
+        when(rs.getInt(4)).thenReturn(25, 52);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(customerDao).forEachCustomerRow(any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.write(response);
+
+        //THEN
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsString()).isEqualTo(objectMapper.writeValueAsString(customers));
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void writesEmptyArrayWhenThereAreNoCustomers() throws Exception {
+        //GIVEN
+        CustomerJsonListWriter underTest =
+                new CustomerJsonListWriter(customerDao, customerService, objectMapper, routing, limiter, circuitBreaker, true);
+        when(routing.getPrimaryName()).thenReturn("jdbc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.write(response);
+
+        //THEN
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void usesTheDaoChainWhenJdbcIsNotThePrimaryStore() throws Exception {
+        //GIVEN
+        CustomerJsonListWriter underTest =
+                new CustomerJsonListWriter(customerDao, customerService, objectMapper, routing, limiter, circuitBreaker, true);
+        when(routing.getPrimaryName()).thenReturn("sharded");
+        when(customerService.getAllCustomers()).thenReturn(customers);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.write(response);
+
+        //THEN
+        assertThat(response.getContentAsString()).isEqualTo(objectMapper.writeValueAsString(customers));
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void streamFailuresOpenTheCircuitBreaker() {
+        //GIVEN
+        CustomerJsonListWriter underTest =
+                new CustomerJsonListWriter(customerDao, customerService, objectMapper, routing, limiter, circuitBreaker, true);
+        when(routing.getPrimaryName()).thenReturn("jdbc");
+        doThrow(new DataAccessResourceFailureException("connection refused")).when(customerDao).forEachCustomerRow(any());
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> underTest.write(new MockHttpServletResponse()))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
+        }
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.write(new MockHttpServletResponse()))
+                .isInstanceOf(DatabaseUnavailableException.class);
+        verify(customerDao, times(4)).forEachCustomerRow(any());
+    }
+}
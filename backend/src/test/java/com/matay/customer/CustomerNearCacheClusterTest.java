@@ -0,0 +1,84 @@
+package com.matay.customer;
+
+import com.matay.AbstractTestcontainers;
+import com.matay.Main;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two application contexts against the same Postgres to check that writes on one node
+ * invalidate the near-cache of the other.
+ */
+class CustomerNearCacheClusterTest extends AbstractTestcontainers {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitTrue(() -> nodeA.getBean(CustomerNearCache.class).isActive()
+                && nodeB.getBean(CustomerNearCache.class).isActive());
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void updateOnOneNodeInvalidatesTheOther() {
+        //GIVEN
+        CustomerService serviceA = nodeA.getBean(CustomerService.class);
+        CustomerService serviceB = nodeB.getBean(CustomerService.class);
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        serviceA.addCustomer(new CustomerRegistrationRequest(FAKER.name().fullName(), email, 30));
+        Integer id = getJdbcTemplate().queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+
+        //node B caches the customer
+        assertThat(serviceB.getCustomerById(id).getAge()).isEqualTo(30);
+
+        //WHEN
+        serviceA.updateCustomer(id, new CustomerUpdateRequest(null, null, 31));
+
+        //THEN
+        awaitTrue(() -> serviceB.getCustomerById(id).getAge() == 31);
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                        "spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                        "spring.datasource.password=" + postgreSQLContainer.getPassword()
+                )
+                .run();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerNearCacheDataAccessServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private CustomerNearCache customerNearCache;
+    private CustomerResponseCache customerResponseCache;
+    private CustomerNearCacheDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        customerNearCache = new CustomerNearCache(true, 100, 60);
+        customerNearCache.onResync();
+        customerResponseCache = new CustomerResponseCache(new ObjectMapper(), true, 1 << 20);
+        customerResponseCache.onResync();
+        underTest = new CustomerNearCacheDataAccessService(customerDao, customerNearCache, customerResponseCache);
+    }
+
+    @Test
+    void selectCustomerByIdIsServedFromCacheAfterFirstRead() {
+        //GIVEN
+        Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        //WHEN
+        Optional<Customer> first = underTest.selectCustomerById(1);
+        first.orElseThrow().setName("mutated by caller");
+        Optional<Customer> second = underTest.selectCustomerById(1);
+
+        //THEN
+        assertThat(second).hasValueSatisfying(c -> assertThat(c.getName()).isEqualTo("Matay"));
+        verify(customerDao, times(1)).selectCustomerById(1);
+    }
+
+    @Test
+    void remoteChangeInvalidatesCustomerAndEmails() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new Customer(1, "Matay", "new@code.com", 25)));
+        when(customerDao.existsPersonWithEmail("old@code.com")).thenReturn(true, false);
+        underTest.selectCustomerById(1);
+        underTest.existsPersonWithEmail("old@code.com");
+
+        //WHEN
+        customerNearCache.onChange(new CustomerChangeEvent("UPDATE", 1, 7L, "new@code.com", "old@code.com"));
+
+        //THEN
+        underTest.selectCustomerById(1);
+        assertThat(underTest.existsPersonWithEmail("old@code.com")).isFalse();
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void readRacingAnInvalidationIsNotCached() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1)).thenAnswer(invocation -> {
+            customerNearCache.invalidate(1);
+            return Optional.of(new Customer(1, "Matay", "matay@code.com", 25));
+        });
+
+        //WHEN
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(1);
+
+        //THEN
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void selectCustomersByIdsOnlyFetchesMisses() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(new Customer(1, "Matay", "matay@code.com", 25)));
+        when(customerDao.selectCustomersByIds(List.of(2))).thenReturn(List.of(new Customer(2, "Yatam", "yatam@code.com", 52)));
+        underTest.selectCustomerById(1);
+
+        //WHEN
+        List<Customer> actual = underTest.selectCustomersByIds(List.of(1, 2));
+
+        //THEN
+        assertThat(actual).extracting(Customer::getId).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void bypassesCacheWhileListenerIsDisconnected() {
+        //GIVEN
+        customerNearCache.onDisconnect();
+
+        //WHEN
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(1);
+
+        //THEN
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void updateInvalidatesCachedResponses() {
+        //GIVEN
+        Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+        customerResponseCache.put(
+                customerResponseCache.epoch(), customer, CustomerResponseCache.Representation.JSON
+        );
+
+        //WHEN
+        underTest.updateCustomer(new Customer(1, "Yatam", "matay@code.com", 25));
+
+        //THEN
+        assertThat(customerResponseCache.get(1, CustomerResponseCache.Representation.JSON)).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package com.matay.customer;
+
+import com.matay.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerPurgeDataAccessServiceTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private CustomerPurgeDataAccessService underTest;
+    private CustomerJDBCDataAccessService customerDao;
+    private CustomerStatsDataAccessService statsDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerPurgeDataAccessService(jdbcTemplate, Optional.empty());
+        customerDao = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), true);
+        statsDao = new CustomerStatsDataAccessService(jdbcTemplate);
+        //start from no soft deleted rows left behind by other tests
+        underTest.purgeDeletedCustomers(Duration.ZERO, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void purgeRemovesOnlyRowsPastRetention() {
+        //GIVEN
+        int old = insertSoftDeleted(Duration.ofDays(2));
+        int recent = insertSoftDeleted(Duration.ZERO);
+
+        //WHEN
+        int purged = underTest.purgeDeletedCustomers(Duration.ofDays(1), 100);
+
+        //THEN
+        assertThat(purged).isEqualTo(1);
+        assertThat(rowExists(old)).isFalse();
+        assertThat(rowExists(recent)).isTrue();
+        assertThat(underTest.countDeletedCustomers()).isEqualTo(1);
+        Integer tombstones = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer_tombstone WHERE id = ?", Integer.class, old
+        );
+        assertThat(tombstones).isEqualTo(1);
+    }
+
+    @Test
+    void purgeIsBatched() {
+        //GIVEN
+        for (int i = 0; i < 5; i++) {
+            insertSoftDeleted(Duration.ofDays(2));
+        }
+
+        //WHEN
+        int first = underTest.purgeDeletedCustomers(Duration.ofDays(1), 3);
+        int second = underTest.purgeDeletedCustomers(Duration.ofDays(1), 3);
+
+        //THEN
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(2);
+        assertThat(underTest.countDeletedCustomers()).isZero();
+    }
+
+    @Test
+    void ageCountersDropOnSoftDeleteAndNotAgainOnPurge() {
+        //GIVEN
+        int age = 119;
+        long before = statsDao.selectAgeCounts().getOrDefault(age, 0L);
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, age));
+        int id = jdbcTemplate.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+
+        //WHEN
+        customerDao.deleteCustomerById(id);
+        long afterSoftDelete = statsDao.selectAgeCounts().getOrDefault(age, 0L);
+        underTest.purgeDeletedCustomers(Duration.ZERO, 100);
+        long afterPurge = statsDao.selectAgeCounts().getOrDefault(age, 0L);
+
+        //THEN
+        assertThat(afterSoftDelete).isEqualTo(before);
+        assertThat(afterPurge).isEqualTo(before);
+        assertThat(rowExists(id)).isFalse();
+    }
+
+    private int insertSoftDeleted(Duration deletedAgo) {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        int id = jdbcTemplate.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+        jdbcTemplate.update(
+                "UPDATE customer SET deleted_at = now() - make_interval(secs => ?) WHERE id = ?",
+                deletedAgo.toSeconds(), id
+        );
+        return id;
+    }
+
+    private boolean rowExists(int id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM customer WHERE id = ?", Integer.class, id);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.matay.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerPurgeServiceTest {
+
+    private static final Duration RETENTION = Duration.ofHours(24);
+
+    @Mock
+    private CustomerPurgeDataAccessService customerPurgeDataAccessService;
+    private CustomerPurgeService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerPurgeService(
+                customerPurgeDataAccessService, true, RETENTION, "01:00", "05:00", 100, Duration.ZERO
+        );
+    }
+
+    @Test
+    void purgeRunsBatchesUntilOneComesBackShort() {
+        //GIVEN
+        when(customerPurgeDataAccessService.purgeDeletedCustomers(RETENTION, 100)).thenReturn(100, 100, 30);
+
+        //WHEN
+        int actual = underTest.purge(Duration.ofMinutes(1));
+
+        //THEN
+        assertThat(actual).isEqualTo(230);
+        assertThat(underTest.getPurgedCount()).isEqualTo(230);
+        verify(customerPurgeDataAccessService, times(3)).purgeDeletedCustomers(RETENTION, 100);
+    }
+
+    @Test
+    void purgeStopsWhenBudgetIsSpent() {
+        //WHEN
+        int actual = underTest.purge(Duration.ZERO);
+
+        //THEN
+        assertThat(actual).isZero();
+        verifyNoInteractions(customerPurgeDataAccessService);
+    }
+
+    @Test
+    void purgeOffPeakDoesNothingWhenDisabled() {
+        //GIVEN
+        underTest = new CustomerPurgeService(
+                customerPurgeDataAccessService, false, RETENTION, "00:00", "23:59", 100, Duration.ZERO
+        );
+
+        //WHEN
+        underTest.purgeOffPeak();
+
+        //THEN
+        verifyNoInteractions(customerPurgeDataAccessService);
+    }
+
+    @Test
+    void isOffPeak() {
+        //GIVEN
+        LocalTime start = LocalTime.of(1, 0);
+        LocalTime end = LocalTime.of(5, 0);
+
+        //WHEN
+        //THEN
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(1, 0), start, end)).isTrue();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(4, 59), start, end)).isTrue();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(5, 0), start, end)).isFalse();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(12, 0), start, end)).isFalse();
+    }
+
+    @Test
+    void isOffPeakAcrossMidnight() {
+        //GIVEN
+        LocalTime start = LocalTime.of(22, 0);
+        LocalTime end = LocalTime.of(4, 0);
+
+        //WHEN
+        //THEN
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(23, 0), start, end)).isTrue();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(2, 0), start, end)).isTrue();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(4, 0), start, end)).isFalse();
+        assertThat(CustomerPurgeService.isOffPeak(LocalTime.of(21, 59), start, end)).isFalse();
+    }
+}
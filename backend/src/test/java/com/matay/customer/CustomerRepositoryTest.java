@@ -7,8 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -18,12 +22,36 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
 
     @Autowired
     private CustomerRepository underTest;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void setUp() {
         underTest.deleteAll();
     }
 
+    @Test
+    void jpaAndColumnDefaultIdsShareOneStepOneSequence() {
+        //GIVEN
+        List<Customer> saved = underTest.saveAll(List.of(
+                new Customer(FAKER.name().fullName(), "jpa-1-" + UUID.randomUUID(), 25),
+                new Customer(FAKER.name().fullName(), "jpa-2-" + UUID.randomUUID(), 26)
+        ));
+        underTest.flush();
+
+        //WHEN
+        String sql = "INSERT INTO customer(name, email, age) VALUES ('Matay', ?, 25) RETURNING id";
+        Integer first = jdbcTemplate.queryForObject(sql, Integer.class, "jdbc-1-" + UUID.randomUUID());
+        Integer second = jdbcTemplate.queryForObject(sql, Integer.class, "jdbc-2-" + UUID.randomUUID());
+
+        //THEN
+        //the column default takes one id per row, after the block Hibernate reserved
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(saved).extracting(Customer::getId).doesNotContainNull().allMatch(id -> id < first);
+    }
+
     @Test
     void existsCustomerByEmail() {
         //GIVEN
@@ -93,4 +121,89 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
         //THEN
         assertThat(actual).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamAllCustomersReturnsUnmanagedCustomers() {
+        //GIVEN
+        Customer customer = underTest.save(new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                25
+        ));
+        entityManager.flush();
+        entityManager.clear();
+
+        //WHEN
+        List<Customer> actual;
+        try (Stream<Customer> customers = underTest.streamAllCustomers()) {
+            actual = customers.toList();
+        }
+
+        //THEN
+        assertThat(actual).containsExactly(customer);
+        assertThat(entityManager.getEntityManager().contains(actual.get(0))).isFalse();
+    }
+
+    @Test
+    void updateCustomerChangesOnlyGivenFields() {
+        //GIVEN
+        Customer customer = underTest.save(new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                25
+        ));
+        entityManager.flush();
+        entityManager.clear();
+
+        //WHEN
+        int updated = underTest.updateCustomer(customer.getId(), null, null, 30);
+
+        //THEN
+        assertThat(updated).isEqualTo(1);
+        assertThat(underTest.findCustomerById(customer.getId())).hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo(customer.getName());
+            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+            assertThat(c.getAge()).isEqualTo(30);
+        });
+    }
+
+    @Test
+    void deleteCustomerById() {
+        //GIVEN
+        Customer customer = underTest.save(new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                25
+        ));
+        entityManager.flush();
+
+        //WHEN
+        int deleted = underTest.deleteCustomerById(customer.getId());
+
+        //THEN
+        assertThat(deleted).isEqualTo(1);
+        assertThat(underTest.findCustomersByIds(List.of(customer.getId()))).isEmpty();
+    }
+
+    @Test
+    void softDeletedCustomersAreHiddenFromQueries() {
+        //GIVEN
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = underTest.save(new Customer(FAKER.name().fullName(), email, 25));
+        entityManager.flush();
+
+        //WHEN
+        int deleted = underTest.softDeleteCustomerById(customer.getId());
+        entityManager.clear();
+
+        //THEN
+        assertThat(deleted).isEqualTo(1);
+        assertThat(underTest.existsCustomerById(customer.getId())).isFalse();
+        assertThat(underTest.existsCustomerByEmail(email)).isFalse();
+        assertThat(underTest.findCustomerById(customer.getId())).isEmpty();
+        assertThat(underTest.findById(customer.getId())).isEmpty();
+        try (Stream<Customer> customers = underTest.streamAllCustomers()) {
+            assertThat(customers).extracting(Customer::getId).doesNotContain(customer.getId());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.matay.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+    private CustomerResponseCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerResponseCache(objectMapper, true, 1 << 20);
+        underTest.onResync();
+    }
+
+    @Test
+    void servesEncodedBodyAfterFirstPut() throws IOException {
+        //GIVEN
+        underTest.put(underTest.epoch(), customer, CustomerResponseCache.Representation.JSON);
+
+        //WHEN
+        CustomerResponseCache.EncodedResponse actual = underTest.get(1, CustomerResponseCache.Representation.JSON);
+
+        //THEN
+        assertThat(actual).isNotNull();
+        assertThat(objectMapper.readValue(actual.body(), Customer.class)).isEqualTo(customer);
+        assertThat(underTest.getHitCount()).isEqualTo(1);
+        assertThat(underTest.getCpuSavedSeconds()).isPositive();
+    }
+
+    @Test
+    void gzipRepresentationIsWrittenWithContentEncoding() throws IOException {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CustomerResponseCache.Representation representation = CustomerResponseCache.Representation.of(request);
+
+        //WHEN
+        underTest.put(underTest.epoch(), customer, representation).writeTo(response);
+
+        //THEN
+        assertThat(representation).isEqualTo(CustomerResponseCache.Representation.JSON_GZIP);
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(objectMapper.readValue(in, Customer.class)).isEqualTo(customer);
+        }
+    }
+
+    @Test
+    void gzipIsChosenOnlyWithANonZeroQuality() {
+        //WHEN / THEN
+        assertThat(representationFor("gzip;q=0, deflate")).isEqualTo(CustomerResponseCache.Representation.JSON);
+        assertThat(representationFor("GZIP ; Q=0.0")).isEqualTo(CustomerResponseCache.Representation.JSON);
+        assertThat(representationFor("*;q=0.5, gzip;q=0")).isEqualTo(CustomerResponseCache.Representation.JSON);
+        assertThat(representationFor("br, gzip;q=0.1")).isEqualTo(CustomerResponseCache.Representation.JSON_GZIP);
+        assertThat(representationFor("*")).isEqualTo(CustomerResponseCache.Representation.JSON_GZIP);
+        assertThat(representationFor("identity")).isEqualTo(CustomerResponseCache.Representation.JSON);
+    }
+
+    @Test
+    void putRacingAnInvalidationIsDropped() {
+        //GIVEN
+        long epoch = underTest.epoch();
+        underTest.invalidate(1);
+
+        //WHEN
+        underTest.put(epoch, customer, CustomerResponseCache.Representation.JSON);
+
+        //THEN
+        assertThat(underTest.get(1, CustomerResponseCache.Representation.JSON)).isNull();
+    }
+
+    @Test
+    void changeNotificationInvalidatesEveryRepresentation() {
+        //GIVEN
+        underTest.put(underTest.epoch(), customer, CustomerResponseCache.Representation.JSON);
+        underTest.put(underTest.epoch(), customer, CustomerResponseCache.Representation.JSON_GZIP);
+
+        //WHEN
+        underTest.onChange(new CustomerChangeEvent("UPDATE", 1, 10L, "matay@code.com", null));
+
+        //THEN
+        assertThat(underTest.get(1, CustomerResponseCache.Representation.JSON)).isNull();
+        assertThat(underTest.get(1, CustomerResponseCache.Representation.JSON_GZIP)).isNull();
+    }
+
+    @Test
+    void nothingIsServedWhileDisconnected() {
+        //GIVEN
+        underTest.put(underTest.epoch(), customer, CustomerResponseCache.Representation.JSON);
+
+        //WHEN
+        underTest.onDisconnect();
+
+        //THEN
+        assertThat(underTest.get(1, CustomerResponseCache.Representation.JSON)).isNull();
+    }
+
+    @Test
+    void isBoundedByTotalBytes() {
+        //GIVEN
+        underTest = new CustomerResponseCache(objectMapper, true, 500);
+        underTest.onResync();
+
+        //WHEN
+        for (int id = 1; id <= 100; id++) {
+            underTest.put(underTest.epoch(), new Customer(id, "Matay", "matay@code.com", 25),
+                    CustomerResponseCache.Representation.JSON);
+        }
+
+        //THEN
+        assertThat(underTest.getCachedBytes()).isLessThanOrEqualTo(500);
+    }
+
+    private static CustomerResponseCache.Representation representationFor(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        return CustomerResponseCache.Representation.of(request);
+    }
+}
@@ -0,0 +1,198 @@
+package com.matay.customer;
+
+import com.matay.exception.RequestValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerRoutingDataAccessServiceTest {
+
+    @Mock
+    private CustomerDao jdbc;
+    @Mock
+    private CustomerDao jpa;
+    @Mock
+    private CustomerNearCache customerNearCache;
+    @Mock
+    private CustomerResponseCache customerResponseCache;
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    private CustomerRoutingDataAccessService underTest;
+
+    private final Customer customer = new Customer(1, "Matay", "matay@code.com", 25);
+
+    @BeforeEach
+    void setUp() {
+        beanFactory.addBean("jdbc", jdbc);
+        beanFactory.addBean("jpa", jpa);
+        underTest = routing(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    private CustomerRoutingDataAccessService routing(boolean shadow) {
+        return new CustomerRoutingDataAccessService(
+                beanFactory, customerNearCache, customerResponseCache, "jdbc", shadow, "jpa", 1.0, 1, 10
+        );
+    }
+
+    private CustomerDaoStatus awaitStatus(Predicate<CustomerDaoStatus> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        CustomerDaoStatus status = underTest.status();
+        while (!condition.test(status) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = underTest.status();
+        }
+        return status;
+    }
+
+    @Test
+    void readsAndWritesGoToThePrimary() {
+        //GIVEN
+        when(jdbc.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        //WHEN
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+        underTest.insertCustomer(customer);
+
+        //THEN
+        assertThat(actual).contains(customer);
+        verify(jdbc).insertCustomer(customer);
+        verifyNoInteractions(jpa);
+    }
+
+    @Test
+    void switchPrimaryRoutesToTheNewDaoAndClearsTheCaches() {
+        //GIVEN
+        when(jpa.existPersonWithId(1)).thenReturn(true);
+
+        //WHEN
+        CustomerDaoStatus status = underTest.switchPrimary("jpa");
+        boolean actual = underTest.existPersonWithId(1);
+
+        //THEN
+        assertThat(actual).isTrue();
+        assertThat(status.primary()).isEqualTo("jpa");
+        assertThat(underTest.getPrimaryName()).isEqualTo("jpa");
+        verify(customerNearCache).invalidateAll();
+        verify(customerResponseCache).invalidateAll();
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void switchPrimaryRejectsEverythingButTheStores() {
+        //GIVEN
+        beanFactory.addBean("list", mock(CustomerDao.class));
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.switchPrimary("mongo"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("[mongo] is not a customer DAO");
+        assertThatThrownBy(() -> underTest.switchPrimary("nearCache"))
+                .isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.switchPrimary("list"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("[list] is not a customer DAO");
+        assertThat(underTest.getPrimaryName()).isEqualTo("jdbc");
+        verifyNoInteractions(customerNearCache, customerResponseCache);
+    }
+
+    @Test
+    void startShadowRejectsThePrimaryAndBadSampleRates() {
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.startShadow("jdbc", 0.5))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("[jdbc] is already the primary DAO");
+        assertThatThrownBy(() -> underTest.startShadow("jpa", 0))
+                .isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.startShadow("jpa", 1.5))
+                .isInstanceOf(RequestValidationException.class);
+        assertThat(underTest.status().shadow()).isNull();
+    }
+
+    @Test
+    void shadowReadsAreComparedWithThePrimaryResult() throws InterruptedException {
+        //GIVEN
+        Customer other = new Customer(2, "Yatam", "yatam@code.com", 52);
+        underTest.startShadow("jpa", 1.0);
+        when(jdbc.selectAllCustomers()).thenReturn(List.of(customer, other));
+        when(jpa.selectAllCustomers()).thenReturn(List.of(other, customer));
+        when(jdbc.selectCustomerById(1)).thenReturn(Optional.of(customer));
+        when(jpa.selectCustomerById(1)).thenReturn(Optional.empty());
+
+        //WHEN
+        List<Customer> all = underTest.selectAllCustomers();
+        Optional<Customer> one = underTest.selectCustomerById(1);
+
+        //THEN
+        assertThat(all).containsExactly(customer, other);
+        assertThat(one).contains(customer);
+        CustomerDaoStatus status = awaitStatus(s -> s.compared() == 2);
+        assertThat(status.shadow()).isEqualTo("jpa");
+        assertThat(status.compared()).isEqualTo(2);
+        assertThat(status.mismatches()).isEqualTo(1);
+        assertThat(status.shadowErrors()).isZero();
+    }
+
+    @Test
+    void shadowFailuresDoNotReachTheCaller() throws InterruptedException {
+        //GIVEN
+        underTest.stopShadow();
+        underTest.shutdown();
+        underTest = routing(true);
+        when(jdbc.existsPersonWithEmail("matay@code.com")).thenReturn(true);
+        when(jpa.existsPersonWithEmail("matay@code.com")).thenThrow(new IllegalStateException("down"));
+
+        //WHEN
+        boolean actual = underTest.existsPersonWithEmail("matay@code.com");
+
+        //THEN
+        assertThat(actual).isTrue();
+        CustomerDaoStatus status = awaitStatus(s -> s.shadowErrors() == 1);
+        assertThat(status.shadowErrors()).isEqualTo(1);
+        assertThat(status.compared()).isZero();
+    }
+
+    @Test
+    void writesAreNeverShadowed() {
+        //GIVEN
+        underTest.startShadow("jpa", 1.0);
+
+        //WHEN
+        underTest.deleteCustomerById(1);
+        underTest.updateCustomer(customer);
+
+        //THEN
+        verify(jdbc).deleteCustomerById(1);
+        verify(jdbc).updateCustomer(customer);
+        verifyNoInteractions(jpa);
+    }
+
+    @Test
+    void sameResultIgnoresRowOrder() {
+        //GIVEN
+        Customer other = new Customer(2, "Yatam", "yatam@code.com", 52);
+
+        //WHEN / THEN
+        assertThat(CustomerRoutingDataAccessService.sameResult(List.of(customer, other), List.of(other, customer)))
+                .isTrue();
+        assertThat(CustomerRoutingDataAccessService.sameResult(List.of(customer, other), List.of(customer)))
+                .isFalse();
+        assertThat(CustomerRoutingDataAccessService.sameResult(true, false)).isFalse();
+    }
+}
@@ -1,8 +1,11 @@
 package com.matay.customer;
 
+import com.matay.exception.DatabaseUnavailableException;
 import com.matay.exception.DuplicateResourceException;
 import com.matay.exception.RequestValidationException;
 import com.matay.exception.ResourceNotFoundException;
+import com.matay.heavyhitters.CustomerHeavyHitters;
+import com.matay.resilience.StaleCustomer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +13,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,11 +25,15 @@ class CustomerServiceTest {
 
     @Mock
     private CustomerDao customerDao;
+    @Mock
+    private CustomerHeavyHitters customerHeavyHitters;
     private CustomerService underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDao);
+        underTest = new CustomerService(customerDao, new CustomerBatchLoader(
+                customerDao, new CustomerNearCache(false, 0, 0), false, 1000, 64
+        ), customerHeavyHitters);
     }
 
     @Test
@@ -51,6 +59,7 @@ class CustomerServiceTest {
 
         //THEN
         assertThat(actual).isEqualTo(customer);
+        verify(customerHeavyHitters).record(CustomerHeavyHitters.Operation.READ, id);
     }
 
     @Test
@@ -123,6 +132,7 @@ class CustomerServiceTest {
 
         //THEN
         verify(customerDao).deleteCustomerById(id);
+        verify(customerHeavyHitters).record(CustomerHeavyHitters.Operation.DELETE, id);
     }
 
     @Test
@@ -167,6 +177,8 @@ class CustomerServiceTest {
         assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
         assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
+        verify(customerHeavyHitters).record(CustomerHeavyHitters.Operation.UPDATE, id);
+        verify(customerHeavyHitters, never()).record(CustomerHeavyHitters.Operation.READ, id);
     }
 
     @Test
@@ -300,4 +312,22 @@ class CustomerServiceTest {
         //THEN
         verify(customerDao, never()).updateCustomer(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void willNotUpdateFromAStaleRead() {
+        //GIVEN
+        int id = 1;
+        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(
+                new StaleCustomer(new Customer(id, "Matay", "matay@code.com", 25), Duration.ofSeconds(30))
+        ));
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Matay", null, null);
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
+                .isInstanceOf(DatabaseUnavailableException.class)
+                .hasMessage("Customer with id [1] cannot be updated while the database is unavailable");
+
+        verify(customerDao, never()).updateCustomer(any());
+    }
+}
@@ -0,0 +1,67 @@
+package com.matay.customer;
+
+import com.matay.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatsDataAccessServiceTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private CustomerStatsDataAccessService underTest;
+    private CustomerJDBCDataAccessService customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStatsDataAccessService(jdbcTemplate);
+        customerDao = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), false);
+    }
+
+    @Test
+    void countersFollowInsertUpdateAndDelete() {
+        //GIVEN
+        int age = 117;
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, age));
+        int id = customerDao.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        //WHEN
+        //THEN
+        assertThat(underTest.selectAgeCounts()).containsEntry(age, 1L);
+
+        Customer update = new Customer();
+        update.setId(id);
+        update.setAge(age + 1);
+        customerDao.updateCustomer(update);
+        assertThat(underTest.selectAgeCounts()).doesNotContainKey(age).containsEntry(age + 1, 1L);
+
+        customerDao.deleteCustomerById(id);
+        assertThat(underTest.selectAgeCounts()).doesNotContainKey(age + 1);
+    }
+
+    @Test
+    void reconcileRepairsDriftedCounters() {
+        //GIVEN
+        jdbcTemplate.update("INSERT INTO customer_age_stats(age, customer_count) VALUES (150, 7)");
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+
+        //WHEN
+        Integer drifted = transactionTemplate.execute(status -> underTest.reconcile());
+
+        //THEN
+        assertThat(drifted).isPositive();
+        assertThat(underTest.selectAgeCounts()).doesNotContainKey(150);
+    }
+}
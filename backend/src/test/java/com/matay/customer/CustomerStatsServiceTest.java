@@ -0,0 +1,74 @@
+package com.matay.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsServiceTest {
+
+    @Mock
+    private CustomerStatsDataAccessService customerStatsDataAccessService;
+    private CustomerStatsService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStatsService(customerStatsDataAccessService);
+    }
+
+    @Test
+    void getStats() {
+        //GIVEN
+        when(customerStatsDataAccessService.selectAgeCounts()).thenReturn(new TreeMap<>(Map.of(
+                18, 2L,
+                19, 1L,
+                42, 1L
+        )));
+
+        //WHEN
+        CustomerStats actual = underTest.getStats();
+
+        //THEN
+        assertThat(actual.totalCustomers()).isEqualTo(4);
+        assertThat(actual.minAge()).isEqualTo(18);
+        assertThat(actual.maxAge()).isEqualTo(42);
+        assertThat(actual.averageAge()).isEqualTo(24.25);
+        assertThat(actual.ageHistogram()).containsExactly(
+                Map.entry("10-19", 3L),
+                Map.entry("40-49", 1L)
+        );
+    }
+
+    @Test
+    void getStatsWhenThereAreNoCustomers() {
+        //GIVEN
+        when(customerStatsDataAccessService.selectAgeCounts()).thenReturn(new TreeMap<>());
+
+        //WHEN
+        CustomerStats actual = underTest.getStats();
+
+        //THEN
+        assertThat(actual.totalCustomers()).isZero();
+        assertThat(actual.minAge()).isNull();
+        assertThat(actual.averageAge()).isNull();
+        assertThat(actual.ageHistogram()).isEmpty();
+    }
+
+    @Test
+    void reconcile() {
+        //WHEN
+        underTest.reconcile();
+
+        //THEN
+        verify(customerStatsDataAccessService).reconcile();
+    }
+}
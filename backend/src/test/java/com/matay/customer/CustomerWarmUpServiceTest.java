@@ -0,0 +1,197 @@
+package com.matay.customer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerWarmUpServiceTest {
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+    @Mock
+    private CustomerHotKeyDataAccessService hotKeyDao;
+    private final CustomerNearCache customerNearCache = new CustomerNearCache(true, 1000, 300);
+
+    @Test
+    void warmsHotKeysThenReportsReady() {
+        //GIVEN
+        customerNearCache.onResync();
+        when(hotKeyDao.selectHotKeys(anyInt())).thenReturn(List.of(1, 2, 3));
+        when(customerDao.selectCustomersByIds(anyCollection())).thenAnswer(invocation -> {
+            List<Integer> ids = List.copyOf(invocation.getArgument(0));
+            return ids.stream().filter(id -> id != 3)
+                    .map(id -> new Customer(id, "Matay", "matay" + id + "@code.com", 25))
+                    .toList();
+        });
+        CustomerWarmUpService underTest = warmUpService(true, Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        awaitReady(underTest);
+        assertThat(underTest.getState()).isEqualTo(CustomerWarmUpService.State.DONE);
+        assertThat(underTest.getWarmedCount()).isEqualTo(2);
+        assertThat(underTest.getTimingsMillis()).containsKeys("context", "listener", "hot-keys", "load");
+        assertThat(customerNearCache.getCustomer(1)).isPresent();
+        assertThat(customerNearCache.getCustomer(3)).isEmpty();
+        //two-id chunks, so three ids need two queries
+        verify(customerDao, times(2)).selectCustomersByIds(anyCollection());
+    }
+
+    @Test
+    void fallsBackToRecentlyChangedCustomers() {
+        //GIVEN
+        customerNearCache.onResync();
+        when(hotKeyDao.selectHotKeys(anyInt())).thenReturn(List.of());
+        when(hotKeyDao.selectRecentlyChangedIds(anyInt())).thenReturn(List.of(7));
+        when(customerDao.selectCustomersByIds(anyCollection()))
+                .thenReturn(List.of(new Customer(7, "Matay", "matay@code.com", 25)));
+        CustomerWarmUpService underTest = warmUpService(true, Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        awaitReady(underTest);
+        assertThat(customerNearCache.getCustomer(7)).isPresent();
+    }
+
+    @Test
+    void reportsReadyOnceBudgetExpires() {
+        //GIVEN
+        //the listener never connects, so warm-up cannot start
+        CustomerWarmUpService underTest = warmUpService(true, Duration.ofMillis(100));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        assertThat(underTest.isReady()).isFalse();
+        awaitReady(underTest);
+        assertThat(underTest.getState()).isEqualTo(CustomerWarmUpService.State.BUDGET_EXCEEDED);
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void isReadyImmediatelyWhenDisabled() {
+        //GIVEN
+        CustomerWarmUpService underTest = warmUpService(false, Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.getState()).isEqualTo(CustomerWarmUpService.State.DISABLED);
+    }
+
+    @Test
+    void isReadyImmediatelyWhenTheChangeStreamIsOff() {
+        //GIVEN
+        CustomerWarmUpService underTest = warmUpService(true, false, "hot-keys", Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.getState()).isEqualTo(CustomerWarmUpService.State.DISABLED);
+        verifyNoInteractions(customerDao, hotKeyDao);
+    }
+
+    @Test
+    void rereadsScannedChunksOnceSomethingWasInvalidated() {
+        //GIVEN
+        customerNearCache.onResync();
+        List<Customer> scanned = IntStream.rangeClosed(1, 5)
+                .mapToObj(id -> new Customer(id, "Matay", "matay" + id + "@code.com", 25))
+                .toList();
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(2);
+            consumer.accept(scanned.get(0));
+            consumer.accept(scanned.get(1));
+            //a write to a customer the scan already passed
+            customerNearCache.invalidate(1);
+            scanned.subList(2, 5).forEach(consumer);
+            return null;
+        }).when(customerDao).scanAllCustomers(anyInt(), eq(false), any());
+        when(customerDao.selectCustomersByIds(anyCollection())).thenAnswer(invocation -> {
+            List<Integer> ids = List.copyOf(invocation.getArgument(0));
+            return scanned.stream().filter(customer -> ids.contains(customer.getId())).toList();
+        });
+        CustomerWarmUpService underTest = warmUpService(true, true, "all", Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.onApplicationReady(readyEvent());
+
+        //THEN
+        awaitReady(underTest);
+        assertThat(underTest.getState()).isEqualTo(CustomerWarmUpService.State.DONE);
+        //1 and 2 were put before the write, 3 to 5 came from the now stale snapshot and were read again
+        assertThat(underTest.getWarmedCount()).isEqualTo(5);
+        assertThat(customerNearCache.getCustomer(1)).isNull();
+        assertThat(customerNearCache.getCustomer(5)).isPresent();
+        verify(customerDao, times(2)).selectCustomersByIds(anyCollection());
+    }
+
+    @Test
+    void persistsHottestCachedIds() {
+        //GIVEN
+        customerNearCache.onResync();
+        customerNearCache.putCustomer(customerNearCache.epoch(), 1,
+                Optional.of(new Customer(1, "Matay", "matay@code.com", 25)));
+        CustomerWarmUpService underTest = warmUpService(true, Duration.ofSeconds(10));
+
+        //WHEN
+        underTest.persistHotKeys();
+
+        //THEN
+        verify(hotKeyDao).saveHotKeys(List.of(1), Duration.ofHours(24));
+    }
+
+    private CustomerWarmUpService warmUpService(boolean enabled, Duration budget) {
+        return warmUpService(enabled, true, "hot-keys", budget);
+    }
+
+    private CustomerWarmUpService warmUpService(boolean enabled, boolean changeStreamEnabled, String source,
+                                                Duration budget) {
+        return new CustomerWarmUpService(
+                customerDao, hotKeyDao, customerNearCache,
+                enabled, changeStreamEnabled, source, 100, 2, 2, budget, Duration.ofHours(24)
+        );
+    }
+
+    private static ApplicationReadyEvent readyEvent() {
+        return new ApplicationReadyEvent(
+                mock(SpringApplication.class), new String[0], mock(ConfigurableApplicationContext.class),
+                Duration.ofMillis(5)
+        );
+    }
+
+    private static void awaitReady(CustomerWarmUpService warmUpService) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!warmUpService.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(warmUpService.isReady()).isTrue();
+    }
+}
@@ -0,0 +1,91 @@
+package com.matay.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerDatasetGeneratorTest {
+
+    @Test
+    void sameSeedProducesSameRowsInAnyChunkOrder() throws IOException {
+        //GIVEN
+        DatasetProperties properties = properties(42, DatasetProperties.AgeDistribution.NORMAL);
+        CustomerDatasetGenerator first = new CustomerDatasetGenerator(properties);
+        CustomerDatasetGenerator second = new CustomerDatasetGenerator(properties);
+
+        //WHEN
+        StringBuilder firstChunk = new StringBuilder();
+        first.writeChunk(0, firstChunk);
+        first.writeChunk(1, new StringBuilder());
+        StringBuilder secondChunk = new StringBuilder();
+        second.writeChunk(1, new StringBuilder());
+        second.writeChunk(0, secondChunk);
+
+        //THEN
+        assertThat(firstChunk.toString()).isNotEmpty().isEqualTo(secondChunk.toString());
+    }
+
+    @Test
+    void differentSeedsProduceDifferentRows() throws IOException {
+        //GIVEN
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+
+        //WHEN
+        new CustomerDatasetGenerator(properties(1, DatasetProperties.AgeDistribution.NORMAL)).writeChunk(0, first);
+        new CustomerDatasetGenerator(properties(2, DatasetProperties.AgeDistribution.NORMAL)).writeChunk(0, second);
+
+        //THEN
+        assertThat(first.toString()).isNotEqualTo(second.toString());
+    }
+
+    @Test
+    void emailsAreUniqueAndAgesWithinBounds() throws IOException {
+        //GIVEN
+        CustomerDatasetGenerator underTest =
+                new CustomerDatasetGenerator(properties(7, DatasetProperties.AgeDistribution.UNIFORM));
+        StringBuilder csv = new StringBuilder();
+
+        //WHEN
+        for (long chunk = 0; chunk < underTest.chunkCount(); chunk++) {
+            underTest.writeChunk(chunk, csv);
+        }
+
+        //THEN
+        List<String[]> rows = Arrays.stream(csv.toString().split("\n"))
+                .map(line -> line.split(","))
+                .toList();
+        assertThat(rows).hasSize(250);
+        Set<String> emails = new HashSet<>();
+        for (String[] row : rows) {
+            assertThat(emails.add(row[row.length - 2])).isTrue();
+            assertThat(Integer.parseInt(row[row.length - 1])).isBetween(18, 30);
+        }
+    }
+
+    @Test
+    void rejectsInvertedAgeRange() {
+        //GIVEN
+        DatasetProperties properties = new DatasetProperties(
+                10, 42, 1, 10, DatasetProperties.AgeDistribution.UNIFORM, 60, 20, 40, 15, "example.com", null, null
+        );
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> new CustomerDatasetGenerator(properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DatasetProperties properties(long seed, DatasetProperties.AgeDistribution ageDistribution) {
+        return new DatasetProperties(
+                250, seed, 2, 100, ageDistribution, 18, 30, 24, 5, "example.com", null, null
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.matay.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DataSourceWrapperConfigTest {
+
+    private static final DataSource POOL = mock(DataSource.class);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(DataSourceWrapperConfig.class, Wrappers.class);
+
+    @Test
+    void wrapsDataSourceBeansInOrder() {
+        //WHEN / THEN
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isInstanceOf(Outer.class);
+            DataSource inner = ((Outer) dataSource).getTargetDataSource();
+            assertThat(inner).isInstanceOf(Inner.class);
+            assertThat(((Inner) inner).getTargetDataSource()).isSameAs(POOL);
+        });
+    }
+
+    @Test
+    void wrapsDataSourcesCreatedOutsideTheContextTheSameWay() {
+        //WHEN / THEN
+        contextRunner.run(context -> {
+            DataSource actual = context.getBean(DataSourceWrappers.class).wrap(POOL);
+            assertThat(actual).isInstanceOf(Outer.class);
+            assertThat(((Outer) actual).getTargetDataSource()).isInstanceOf(Inner.class);
+        });
+    }
+
+    @Configuration
+    static class Wrappers {
+
+        @Bean
+        DataSource dataSource() {
+            return POOL;
+        }
+
+        //declared first, applied last
+        @Bean
+        @Order(2)
+        DataSourceWrapper outer() {
+            return Outer::new;
+        }
+
+        @Bean
+        @Order(1)
+        DataSourceWrapper inner() {
+            return Inner::new;
+        }
+    }
+
+    static class Inner extends DelegatingDataSource {
+        Inner(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+    }
+
+    static class Outer extends DelegatingDataSource {
+        Outer(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.matay.deadline;
+
+import com.matay.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class DeadlineDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final DeadlineDataSource underTest = new DeadlineDataSource(target);
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void appliesRemainingTimeAsQueryTimeout() throws Exception {
+        //GIVEN
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+        RequestDeadline.set(Duration.ofMillis(1500));
+
+        //WHEN
+        underTest.getConnection().prepareStatement("SELECT 1");
+
+        //THEN
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    void leavesStatementsAloneWithoutDeadline() throws Exception {
+        //GIVEN
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+
+        //WHEN
+        underTest.getConnection().prepareStatement("SELECT 1");
+
+        //THEN
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void expiredRequestNeverBorrowsConnection() throws Exception {
+        //GIVEN
+        RequestDeadline.set(Duration.ZERO);
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(underTest::getConnection)
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessage("Request deadline exceeded");
+        verify(target, never()).getConnection();
+    }
+}
@@ -0,0 +1,85 @@
+package com.matay.deadline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineFilterTest {
+
+    private RequestDeadlineFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RequestDeadlineFilter(new DeadlineProperties(
+                true,
+                "X-Request-Timeout-Ms",
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(30)
+        ));
+    }
+
+    @Test
+    void usesRouteDefault() {
+        //THEN
+        assertThat(underTest.timeoutOf(new MockHttpServletRequest("GET", "/api/v1/customers")))
+                .isEqualTo(Duration.ofSeconds(10));
+        assertThat(underTest.timeoutOf(new MockHttpServletRequest("GET", "/api/v1/customers/1")))
+                .isEqualTo(Duration.ofSeconds(2));
+        assertThat(underTest.timeoutOf(new MockHttpServletRequest("POST", "/api/v1/customers")))
+                .isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void fileTransfersRunWithoutDefaultDeadline() {
+        //GIVEN
+        MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/api/v1/customers/1/files");
+        MockHttpServletRequest download = new MockHttpServletRequest("GET", "/api/v1/customers/1/files/7");
+        MockHttpServletRequest bounded = new MockHttpServletRequest("GET", "/api/v1/customers/1/files");
+        bounded.addHeader("X-Request-Timeout-Ms", "150");
+
+        //THEN
+        assertThat(underTest.timeoutOf(upload)).isNull();
+        assertThat(underTest.timeoutOf(download)).isNull();
+        assertThat(underTest.timeoutOf(bounded)).isEqualTo(Duration.ofMillis(150));
+        assertThat(underTest.timeoutOf(new MockHttpServletRequest("GET", "/api/v1/customers/files")))
+                .isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void headerOverridesRouteDefaultUpToMax() {
+        //GIVEN
+        MockHttpServletRequest shorter = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        shorter.addHeader("X-Request-Timeout-Ms", "150");
+        MockHttpServletRequest longer = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        longer.addHeader("X-Request-Timeout-Ms", "600000");
+
+        //THEN
+        assertThat(underTest.timeoutOf(shorter)).isEqualTo(Duration.ofMillis(150));
+        assertThat(underTest.timeoutOf(longer)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void deadlineIsOnlyVisibleDuringTheRequest() throws Exception {
+        //GIVEN
+        AtomicLong remainingInsideRequest = new AtomicLong();
+
+        //WHEN
+        underTest.doFilter(
+                new MockHttpServletRequest("GET", "/api/v1/customers/1"),
+                new MockHttpServletResponse(),
+                (request, response) -> remainingInsideRequest.set(RequestDeadline.remainingNanos())
+        );
+
+        //THEN
+        assertThat(remainingInsideRequest.get()).isBetween(1L, Duration.ofSeconds(2).toNanos());
+        assertThat(RequestDeadline.isSet()).isFalse();
+    }
+}
@@ -0,0 +1,160 @@
+package com.matay.file;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerFileControllerTest {
+
+    private static final String URI = "/api/v1/customers/1/files/7";
+
+    @TempDir
+    private Path root;
+    @Mock
+    private CustomerFileService customerFileService;
+    private CustomerFileController underTest;
+
+    private final CustomerFile file = new CustomerFile(
+            7L, 1, UUID.randomUUID(), "notes.txt", "text/plain", 10, "abc", Instant.EPOCH
+    );
+    private Path content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        underTest = new CustomerFileController(customerFileService);
+        content = Files.writeString(root.resolve("content"), "0123456789");
+        when(customerFileService.getFile(1, 7L)).thenReturn(file);
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.downloadFile(1, 7L, request, response);
+        return response;
+    }
+
+    @Test
+    void servesTheWholeFile() throws Exception {
+        //GIVEN
+        when(customerFileService.getContent(file)).thenReturn(content);
+
+        //WHEN
+        MockHttpServletResponse actual = download(new MockHttpServletRequest("GET", URI));
+
+        //THEN
+        assertThat(actual.getStatus()).isEqualTo(200);
+        assertThat(actual.getContentAsString()).isEqualTo("0123456789");
+        assertThat(actual.getHeader("ETag")).isEqualTo("\"abc\"");
+        assertThat(actual.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(actual.getHeader("Content-Disposition")).startsWith("attachment;");
+        assertThat(actual.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(actual.getContentLengthLong()).isEqualTo(10);
+    }
+
+    @Test
+    void servesASingleRange() throws Exception {
+        //GIVEN
+        when(customerFileService.getContent(file)).thenReturn(content);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        request.addHeader("Range", "bytes=2-5");
+
+        //WHEN
+        MockHttpServletResponse actual = download(request);
+
+        //THEN
+        assertThat(actual.getStatus()).isEqualTo(206);
+        assertThat(actual.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(actual.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("2345");
+    }
+
+    @Test
+    void servesTheWholeFileWhenIfRangeNamesAnotherVersion() throws Exception {
+        //GIVEN
+        when(customerFileService.getContent(file)).thenReturn(content);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        request.addHeader("Range", "bytes=-3");
+        request.addHeader("If-Range", "\"old\"");
+
+        //WHEN
+        MockHttpServletResponse actual = download(request);
+
+        //THEN
+        assertThat(actual.getStatus()).isEqualTo(200);
+        assertThat(actual.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void rejectsARangePastTheEnd() throws Exception {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        request.addHeader("Range", "bytes=10-");
+
+        //WHEN
+        MockHttpServletResponse actual = download(request);
+
+        //THEN
+        assertThat(actual.getStatus()).isEqualTo(416);
+        assertThat(actual.getHeader("Content-Range")).isEqualTo("bytes */10");
+        verify(customerFileService, never()).getContent(file);
+    }
+
+    @Test
+    void answersNotModifiedForAMatchingETag() throws Exception {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        request.addHeader("If-None-Match", "\"abc\"");
+
+        //WHEN
+        MockHttpServletResponse actual = download(request);
+
+        //THEN
+        assertThat(actual.getStatus()).isEqualTo(304);
+        assertThat(actual.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void failsWhenTheContentIsShorterThanRecorded() throws Exception {
+        //GIVEN
+        Files.writeString(content, "01234");
+        when(customerFileService.getContent(file)).thenReturn(content);
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> download(new MockHttpServletRequest("GET", URI)))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void handsTheRangeToTheContainerWhenItSupportsSendfile() throws Exception {
+        //GIVEN
+        when(customerFileService.getContent(file)).thenReturn(content);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+        request.setAttribute(CustomerFileController.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=4-");
+
+        //WHEN
+        MockHttpServletResponse actual = download(request);
+
+        //THEN
+        assertThat(actual.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute(CustomerFileController.SENDFILE_FILENAME))
+                .isEqualTo(content.toRealPath().toString());
+        assertThat(request.getAttribute(CustomerFileController.SENDFILE_START)).isEqualTo(4L);
+        assertThat(request.getAttribute(CustomerFileController.SENDFILE_END)).isEqualTo(10L);
+    }
+}
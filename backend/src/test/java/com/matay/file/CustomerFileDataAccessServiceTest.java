@@ -0,0 +1,88 @@
+package com.matay.file;
+
+import com.matay.AbstractTestcontainers;
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerJDBCDataAccessService;
+import com.matay.customer.CustomerRowMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerFileDataAccessServiceTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private CustomerFileDataAccessService underTest;
+    private CustomerJDBCDataAccessService customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerFileDataAccessService(jdbcTemplate);
+        customerDao = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), true);
+    }
+
+    @Test
+    void insertedFileCanBeListedAndRead() {
+        //GIVEN
+        int customerId = insertCustomer();
+        UUID storageKey = UUID.randomUUID();
+
+        //WHEN
+        Optional<CustomerFile> inserted = underTest.insertFile(customerId, storageKey, "a.txt", "text/plain", 3, "abc");
+
+        //THEN
+        assertThat(inserted).hasValueSatisfying(file -> {
+            assertThat(file.customerId()).isEqualTo(customerId);
+            assertThat(file.storageKey()).isEqualTo(storageKey);
+            assertThat(file.createdAt()).isNotNull();
+            assertThat(underTest.selectFile(customerId, file.id())).contains(file);
+            assertThat(underTest.selectFiles(customerId)).containsExactly(file);
+        });
+    }
+
+    @Test
+    void filesOfSoftDeletedCustomersAreHidden() {
+        //GIVEN
+        int customerId = insertCustomer();
+        CustomerFile file = underTest.insertFile(customerId, UUID.randomUUID(), "a.txt", "text/plain", 3, "abc")
+                .orElseThrow();
+
+        //WHEN
+        customerDao.deleteCustomerById(customerId);
+
+        //THEN
+        assertThat(underTest.existsCustomer(customerId)).isFalse();
+        assertThat(underTest.selectFile(customerId, file.id())).isEmpty();
+        assertThat(underTest.deleteFile(customerId, file.id())).isEmpty();
+        assertThat(underTest.insertFile(customerId, UUID.randomUUID(), "b.txt", "text/plain", 3, "abc")).isEmpty();
+    }
+
+    @Test
+    void deleteReturnsTheStorageKeyThatIsNoLongerReferenced() {
+        //GIVEN
+        int customerId = insertCustomer();
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        underTest.insertFile(customerId, kept, "a.txt", "text/plain", 3, "abc");
+        CustomerFile file = underTest.insertFile(customerId, deleted, "b.txt", "text/plain", 3, "abc").orElseThrow();
+
+        //WHEN
+        Optional<UUID> actual = underTest.deleteFile(customerId, file.id());
+
+        //THEN
+        assertThat(actual).contains(deleted);
+        assertThat(underTest.selectExistingStorageKeys(List.of(kept, deleted, UUID.randomUUID())))
+                .containsExactly(kept);
+    }
+
+    private int insertCustomer() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        return jdbcTemplate.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+    }
+}
@@ -0,0 +1,120 @@
+package com.matay.file;
+
+import com.matay.exception.PayloadTooLargeException;
+import com.matay.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerFileServiceTest {
+
+    @TempDir
+    private Path root;
+    @Mock
+    private CustomerFileDataAccessService customerFileDataAccessService;
+    @Mock
+    private InputStream body;
+    private LocalBlobStore localBlobStore;
+    private CustomerFileService underTest;
+
+    @BeforeEach
+    void setUp() {
+        CustomerFileProperties properties = new CustomerFileProperties(root, DataSize.ofBytes(1024), Duration.ofHours(1));
+        localBlobStore = new LocalBlobStore(properties);
+        underTest = new CustomerFileService(customerFileDataAccessService, localBlobStore, properties);
+    }
+
+    @Test
+    void rejectsAnnouncedOversizedUploadBeforeReadingIt() {
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.upload(1, "big.bin", "application/octet-stream", 2048, body))
+                .isInstanceOf(PayloadTooLargeException.class);
+        verifyNoInteractions(body, customerFileDataAccessService);
+    }
+
+    @Test
+    void rejectsUploadForUnknownCustomerBeforeReadingIt() {
+        //GIVEN
+        when(customerFileDataAccessService.existsCustomer(1)).thenReturn(false);
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.upload(1, "a.txt", "text/plain", 3, body))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer with id [1] not found");
+        verifyNoInteractions(body);
+    }
+
+    @Test
+    void removesTheBlobWhenTheCustomerWentAwayDuringTheUpload() throws Exception {
+        //GIVEN
+        when(customerFileDataAccessService.existsCustomer(1)).thenReturn(true);
+        when(customerFileDataAccessService.insertFile(eq(1), any(), eq("a.txt"), eq("text/plain"), eq(3L), anyString()))
+                .thenReturn(Optional.empty());
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.upload(1, "a.txt", "text/plain", -1,
+                new ByteArrayInputStream(new byte[3])))
+                .isInstanceOf(ResourceNotFoundException.class);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void deleteRemovesRowAndBlob() throws Exception {
+        //GIVEN
+        UUID storageKey = UUID.randomUUID();
+        localBlobStore.write(storageKey, new ByteArrayInputStream(new byte[3]), 1024);
+        when(customerFileDataAccessService.deleteFile(1, 7L)).thenReturn(Optional.of(storageKey));
+
+        //WHEN
+        underTest.deleteFile(1, 7L);
+
+        //THEN
+        assertThat(localBlobStore.path(storageKey)).doesNotExist();
+    }
+
+    @Test
+    void sweepRemovesOnlyUnreferencedBlobs() throws Exception {
+        //GIVEN
+        UUID referenced = UUID.randomUUID();
+        UUID orphan = UUID.randomUUID();
+        localBlobStore.write(referenced, new ByteArrayInputStream(new byte[1]), 1024);
+        localBlobStore.write(orphan, new ByteArrayInputStream(new byte[1]), 1024);
+        FileTime yesterday = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        Files.setLastModifiedTime(localBlobStore.path(referenced), yesterday);
+        Files.setLastModifiedTime(localBlobStore.path(orphan), yesterday);
+        when(customerFileDataAccessService.selectExistingStorageKeys(Set.of(referenced, orphan)))
+                .thenReturn(Set.of(referenced));
+
+        //WHEN
+        int actual = underTest.sweepOrphans(Instant.now().minus(Duration.ofHours(1)));
+
+        //THEN
+        assertThat(actual).isEqualTo(1);
+        assertThat(localBlobStore.path(referenced)).exists();
+        assertThat(localBlobStore.path(orphan)).doesNotExist();
+    }
+}
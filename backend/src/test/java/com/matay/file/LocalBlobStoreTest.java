@@ -0,0 +1,83 @@
+package com.matay.file;
+
+import com.matay.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalBlobStoreTest {
+
+    @TempDir
+    private Path root;
+    private LocalBlobStore underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new LocalBlobStore(new CustomerFileProperties(root, DataSize.ofMegabytes(1), Duration.ofHours(1)));
+    }
+
+    @Test
+    void writesTheContentAndItsDigest() throws Exception {
+        //GIVEN
+        UUID storageKey = UUID.randomUUID();
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+
+        //WHEN
+        LocalBlobStore.Blob actual = underTest.write(storageKey, new ByteArrayInputStream(content), 1024);
+
+        //THEN
+        assertThat(actual.size()).isEqualTo(5);
+        assertThat(actual.sha256()).isEqualTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+        assertThat(underTest.path(storageKey)).hasBinaryContent(content);
+        assertThat(root.resolve(LocalBlobStore.TMP)).isEmptyDirectory();
+    }
+
+    @Test
+    void abortsOnceTheContentGrowsPastTheLimit() {
+        //GIVEN
+        UUID storageKey = UUID.randomUUID();
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.write(storageKey, new ByteArrayInputStream(new byte[2048]), 1024))
+                .isInstanceOf(PayloadTooLargeException.class);
+        assertThat(underTest.path(storageKey)).doesNotExist();
+        assertThat(root.resolve(LocalBlobStore.TMP)).isEmptyDirectory();
+    }
+
+    @Test
+    void visitsOnlyBlobsOlderThanTheCutoff() throws Exception {
+        //GIVEN
+        UUID old = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+        underTest.write(old, new ByteArrayInputStream(new byte[1]), 1024);
+        underTest.write(recent, new ByteArrayInputStream(new byte[1]), 1024);
+        Path abandoned = Files.createFile(root.resolve(LocalBlobStore.TMP).resolve(UUID.randomUUID() + ".part"));
+        FileTime yesterday = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        Files.setLastModifiedTime(underTest.path(old), yesterday);
+        Files.setLastModifiedTime(abandoned, yesterday);
+
+        //WHEN
+        Map<Path, UUID> visited = new HashMap<>();
+        underTest.forEachBlob(Instant.now().minus(Duration.ofHours(1)), (storageKey, path) -> visited.put(path, storageKey));
+
+        //THEN
+        assertThat(visited).containsOnlyKeys(underTest.path(old), abandoned);
+        assertThat(visited.get(underTest.path(old))).isEqualTo(old);
+        assertThat(visited.get(abandoned)).isNull();
+    }
+}
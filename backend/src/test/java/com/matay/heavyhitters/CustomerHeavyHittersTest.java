@@ -0,0 +1,64 @@
+package com.matay.heavyhitters;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerHeavyHittersTest {
+
+    @Test
+    void tracksOperationsSeparately() {
+        //GIVEN
+        CustomerHeavyHitters underTest = new CustomerHeavyHitters(
+                new HeavyHittersProperties(true, 256, 4, 16, Duration.ofMinutes(1), 0.5)
+        );
+
+        //WHEN
+        underTest.record(CustomerHeavyHitters.Operation.READ, 1);
+        underTest.record(CustomerHeavyHitters.Operation.READ, 1);
+        underTest.record(CustomerHeavyHitters.Operation.UPDATE, 2);
+        Map<CustomerHeavyHitters.Operation, HeavyHittersReport> actual = underTest.top(10);
+
+        //THEN
+        assertThat(actual.get(CustomerHeavyHitters.Operation.READ).top())
+                .containsExactly(new HeavyHitter(1, 2, 1.0));
+        assertThat(actual.get(CustomerHeavyHitters.Operation.UPDATE).top())
+                .containsExactly(new HeavyHitter(2, 1, 1.0));
+        assertThat(actual.get(CustomerHeavyHitters.Operation.DELETE).total()).isZero();
+    }
+
+    @Test
+    void agesCountsOnceWindowHasPassed() throws Exception {
+        //GIVEN
+        CustomerHeavyHitters underTest = new CustomerHeavyHitters(
+                new HeavyHittersProperties(true, 256, 4, 16, Duration.ofMillis(50), 0.5)
+        );
+        for (int i = 0; i < 8; i++) {
+            underTest.record(CustomerHeavyHitters.Operation.READ, 3);
+        }
+
+        //WHEN
+        Thread.sleep(60);
+        HeavyHittersReport actual = underTest.top(10).get(CustomerHeavyHitters.Operation.READ);
+
+        //THEN
+        assertThat(actual.top()).containsExactly(new HeavyHitter(3, 4, 1.0));
+    }
+
+    @Test
+    void ignoresRecordsWhenDisabled() {
+        //GIVEN
+        CustomerHeavyHitters underTest = new CustomerHeavyHitters(
+                new HeavyHittersProperties(false, 256, 4, 16, Duration.ofMinutes(1), 0.5)
+        );
+
+        //WHEN
+        underTest.record(CustomerHeavyHitters.Operation.READ, 1);
+
+        //THEN
+        assertThat(underTest.top(10).get(CustomerHeavyHitters.Operation.READ).total()).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.matay.heavyhitters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void findsHotIdsAmongManyColdOnes() {
+        //GIVEN
+        HeavyHitters underTest = new HeavyHitters(1024, 4, 64);
+        Random random = new Random(42);
+
+        //WHEN
+        for (int i = 0; i < 200_000; i++) {
+            //a fifth of the traffic goes to ids 1..5, the rest is spread over a million ids
+            int id = random.nextInt(5) == 0 ? 1 + random.nextInt(5) : 100 + random.nextInt(1_000_000);
+            underTest.add(id);
+        }
+        List<HeavyHitter> actual = underTest.top(5);
+
+        //THEN
+        assertThat(actual).extracting(HeavyHitter::customerId).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+        assertThat(actual).allSatisfy(hitter -> {
+            //about 8000 each, count-min only overestimates
+            assertThat(hitter.estimate()).isBetween(7_000L, 10_000L);
+            assertThat(hitter.share()).isBetween(0.03, 0.06);
+        });
+        assertThat(underTest.total()).isEqualTo(200_000);
+    }
+
+    @Test
+    void decayAgesCountsAndFreesEmptyCandidates() {
+        //GIVEN
+        HeavyHitters underTest = new HeavyHitters(256, 4, 16);
+        for (int i = 0; i < 100; i++) {
+            underTest.add(7);
+        }
+        underTest.add(8);
+
+        //WHEN
+        underTest.decay(0.5);
+
+        //THEN
+        assertThat(underTest.top(10)).containsExactly(new HeavyHitter(7, 50, 1.0));
+        assertThat(underTest.total()).isEqualTo(50);
+    }
+
+    @Test
+    void countsConcurrently() throws Exception {
+        //GIVEN
+        HeavyHitters underTest = new HeavyHitters(1024, 4, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //WHEN
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    underTest.add(1 + i % 4);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        //THEN
+        assertThat(underTest.total()).isEqualTo(80_000);
+        assertThat(underTest.top(4)).extracting(HeavyHitter::customerId).containsExactlyInAnyOrder(1, 2, 3, 4);
+        //conservative update under contention may lose increments but never overcounts an id without collisions
+        assertThat(underTest.top(4)).allSatisfy(hitter -> assertThat(hitter.estimate()).isLessThanOrEqualTo(20_000));
+    }
+}
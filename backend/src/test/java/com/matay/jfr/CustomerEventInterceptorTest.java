@@ -0,0 +1,130 @@
+package com.matay.jfr;
+
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerDao;
+import com.matay.customer.CustomerListDataAccessService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerEventInterceptorTest {
+
+    @Test
+    void emitsDaoEventsWhileRecording() throws Exception {
+        //GIVEN
+        CustomerDao dao = instrumented(new CustomerListDataAccessService(), CustomerEventInterceptor.forDao("list"));
+
+        //WHEN
+        List<RecordedEvent> events = record(() -> {
+            dao.selectCustomerById(1);
+            dao.selectAllCustomers();
+        });
+
+        //THEN
+        assertThat(events).hasSize(2);
+        RecordedEvent byId = events.get(0);
+        assertThat(byId.getEventType().getName()).isEqualTo("com.matay.CustomerDao");
+        assertThat(byId.getString("operation")).isEqualTo("selectCustomerById");
+        assertThat(byId.getString("daoType")).isEqualTo("list");
+        assertThat(byId.getInt("customerId")).isEqualTo(1);
+        assertThat(byId.getInt("rowCount")).isEqualTo(1);
+        assertThat(byId.getString("failure")).isNull();
+
+        RecordedEvent all = events.get(1);
+        assertThat(all.getString("operation")).isEqualTo("selectAllCustomers");
+        assertThat(all.getInt("customerId")).isZero();
+        assertThat(all.getInt("rowCount")).isEqualTo(dao.selectAllCustomers().size());
+    }
+
+    @Test
+    void takesCustomerIdFromCustomerArgumentAndRecordsFailures() throws Exception {
+        //GIVEN
+        CustomerDao target = mock(CustomerDao.class);
+        when(target.existPersonWithId(7)).thenThrow(new IllegalStateException("down"));
+        CustomerDao dao = instrumented(target, CustomerEventInterceptor.forDao("jdbc"));
+
+        //WHEN
+        List<RecordedEvent> events = record(() -> {
+            dao.updateCustomer(new Customer(5, "matay", "matay@code.com", 25));
+            assertThatThrownBy(() -> dao.existPersonWithId(7)).isInstanceOf(IllegalStateException.class);
+        });
+
+        //THEN
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getInt("customerId")).isEqualTo(5);
+        assertThat(events.get(1).getInt("customerId")).isEqualTo(7);
+        assertThat(events.get(1).getString("failure")).isEqualTo("IllegalStateException");
+    }
+
+    @Test
+    void addsConnectionWaitToOpenEvents() throws Exception {
+        //GIVEN
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return null;
+        });
+        DataSource dataSource = new ConnectionWaitDataSource(pool);
+        CustomerDao target = mock(CustomerDao.class);
+        when(target.existPersonWithId(1)).thenAnswer(invocation -> dataSource.getConnection() == null);
+        CustomerDao dao = instrumented(target, CustomerEventInterceptor.forDao("jdbc"));
+
+        //WHEN
+        List<RecordedEvent> events = record(() -> dao.existPersonWithId(1));
+
+        //THEN
+        assertThat(events).hasSize(1);
+        assertThat(Duration.ofNanos(events.get(0).getLong("dbWait"))).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    void emitsNothingWithoutRecording() throws Exception {
+        //GIVEN
+        CustomerDao dao = instrumented(new CustomerListDataAccessService(), CustomerEventInterceptor.forDao("list"));
+        dao.selectAllCustomers();
+
+        //WHEN
+        List<RecordedEvent> events = record(() -> {
+        });
+
+        //THEN
+        assertThat(events).isEmpty();
+    }
+
+    private static CustomerDao instrumented(CustomerDao target, CustomerEventInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(CustomerDao.class);
+        proxyFactory.addAdvice(interceptor);
+        return (CustomerDao) proxyFactory.getProxy();
+    }
+
+    private static List<RecordedEvent> record(Runnable calls) throws Exception {
+        Path file = Files.createTempFile("customer-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CustomerDaoEvent.class);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.matay."))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
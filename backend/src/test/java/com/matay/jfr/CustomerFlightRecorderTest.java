@@ -0,0 +1,80 @@
+package com.matay.jfr;
+
+import com.matay.exception.RequestValidationException;
+import com.matay.exception.ResourceNotFoundException;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerFlightRecorderTest {
+
+    private CustomerFlightRecorder underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerFlightRecorder(new FlightRecorderProperties(
+                true, "default", Duration.ZERO, DataSize.ofMegabytes(16), Duration.ofMinutes(1), Duration.ofMinutes(5)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (underTest.status().state().equals("RUNNING")) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    void startStopAndDump() throws Exception {
+        //WHEN
+        FlightRecordingStatus started = underTest.start(Duration.ofHours(1));
+        FlightRecordingStatus stopped = underTest.stop();
+        Path dump = underTest.dump();
+
+        //THEN
+        try {
+            assertThat(started.state()).isEqualTo("RUNNING");
+            //capped at max-duration
+            assertThat(started.duration()).isEqualTo(Duration.ofMinutes(5));
+            assertThat(stopped.state()).isEqualTo("STOPPED");
+            assertThat(Files.size(dump)).isPositive();
+            assertThat(RecordingFile.readAllEvents(dump))
+                    .extracting(event -> event.getEventType().getName())
+                    .doesNotContainAnyElementsOf(CustomerFlightRecorder.SENSITIVE_EVENTS);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    void willThrowWhenAlreadyRunning() {
+        //GIVEN
+        underTest.start(null);
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.start(null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("A flight recording is already running");
+    }
+
+    @Test
+    void willThrowWhenStoppingWithoutRecording() {
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> underTest.stop())
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("No flight recording is running");
+        assertThatThrownBy(() -> underTest.dump())
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.matay.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties(
+                true,
+                "X-API-Key",
+                Set.of("client-a", "client-b"),
+                1000,
+                new RateLimitProperties.Limit(1, 1),
+                new RateLimitProperties.Limit(1, 2),
+                new RateLimitProperties.Limit(1, 1),
+                new RateLimitProperties.Limit(1, 1),
+                10
+        );
+        underTest = new RateLimitFilter(properties, mock(DataSource.class));
+    }
+
+    @Test
+    void rejectsWith429AndRetryAfterWhenBudgetIsSpent() throws Exception {
+        //WHEN
+        MockHttpServletResponse first = call("GET", "/api/v1/customers", "client-a");
+        MockHttpServletResponse second = call("GET", "/api/v1/customers", "client-a");
+
+        //THEN
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(underTest.getLimitedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsSeparateBudgetsPerClientAndRoute() throws Exception {
+        //WHEN
+        call("GET", "/api/v1/customers", "client-a");
+
+        //THEN
+        assertThat(call("GET", "/api/v1/customers", "client-b").getStatus()).isEqualTo(200);
+        assertThat(call("GET", "/api/v1/customers/1", "client-a").getStatus()).isEqualTo(200);
+        assertThat(call("PUT", "/api/v1/customers/1", "client-a").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void limitsUnknownKeysByAddress() throws Exception {
+        //WHEN
+        call("GET", "/api/v1/customers", "made-up-1");
+
+        //THEN
+        assertThat(call("GET", "/api/v1/customers", "made-up-2").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void rejectsLimitsWithoutPermits() {
+        //WHEN / THEN
+        assertThatThrownBy(() -> new RateLimitProperties.Limit(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ignoresOtherPaths() throws Exception {
+        //WHEN
+        call("GET", "/ping", "client-a");
+
+        //THEN
+        assertThat(call("GET", "/ping", "client-a").getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse call(String method, String uri, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        underTest.doFilter(request, response, chain);
+        return response;
+    }
+}
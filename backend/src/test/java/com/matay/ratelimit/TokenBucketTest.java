@@ -0,0 +1,41 @@
+package com.matay.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        //GIVEN
+        long now = 0;
+        TokenBucket underTest = new TokenBucket(2, 3, now);
+
+        //WHEN
+        //THEN
+        assertThat(underTest.tryAcquire(now)).isZero();
+        assertThat(underTest.tryAcquire(now)).isZero();
+        assertThat(underTest.tryAcquire(now)).isZero();
+        assertThat(underTest.tryAcquire(now)).isEqualTo(SECOND / 2);
+
+        assertThat(underTest.tryAcquire(now + SECOND / 2)).isZero();
+        assertThat(underTest.tryAcquire(now + SECOND / 2)).isPositive();
+    }
+
+    @Test
+    void idleBucketDoesNotAccumulateMoreThanBurst() {
+        //GIVEN
+        TokenBucket underTest = new TokenBucket(10, 2, 0);
+
+        //WHEN
+        long later = 60 * SECOND;
+
+        //THEN
+        assertThat(underTest.tryAcquire(later)).isZero();
+        assertThat(underTest.tryAcquire(later)).isZero();
+        assertThat(underTest.tryAcquire(later)).isPositive();
+    }
+}
@@ -0,0 +1,176 @@
+package com.matay.resilience;
+
+import com.matay.exception.DatabaseUnavailableException;
+import com.matay.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker underTest;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties(
+                true, 10, 4, 0.5, Duration.ofMillis(100), 0.8, Duration.ofSeconds(10), 2
+        );
+        underTest = new CircuitBreaker(properties, clock::get);
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> underTest.execute(() -> {
+            throw new DataAccessResourceFailureException("down");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    private void succeed(long elapsedMillis) {
+        underTest.execute(() -> clock.addAndGet(Duration.ofMillis(elapsedMillis).toNanos()));
+    }
+
+    @Test
+    void opensOnceTheFailureRateCrossesTheThreshold() {
+        //GIVEN
+        succeed(1);
+        succeed(1);
+        fail();
+
+        //WHEN
+        fail();
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> succeed(1))
+                .isInstanceOf(DatabaseUnavailableException.class)
+                .hasMessage("Database circuit breaker is open");
+        assertThat(underTest.status().rejectedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void integrityViolationsDoNotOpenTheBreaker() {
+        //WHEN
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> underTest.execute(() -> {
+                throw new DataIntegrityViolationException("null value in column \"name\"");
+            })).isInstanceOf(DataIntegrityViolationException.class);
+        }
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(underTest.status().failureRate()).isZero();
+    }
+
+    @Test
+    void countsTransientAndConnectionErrorsAsFailures() {
+        //WHEN / THEN
+        assertThat(CircuitBreaker.isDatabaseFailure(new QueryTimeoutException("timeout"))).isTrue();
+        assertThat(CircuitBreaker.isDatabaseFailure(
+                new CannotGetJdbcConnectionException("no connection", new SQLException()))).isTrue();
+        assertThat(CircuitBreaker.isDatabaseFailure(new DuplicateKeyException("duplicate"))).isFalse();
+        assertThat(CircuitBreaker.isDatabaseFailure(new BadSqlGrammarException("select", "x", new SQLException())))
+                .isFalse();
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        //WHEN
+        fail();
+        fail();
+        fail();
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensWhenMostCallsAreSlow() {
+        //WHEN
+        succeed(150);
+        succeed(150);
+        succeed(150);
+        succeed(150);
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void callsRejectedByTheLimiterAreNotRecorded() {
+        //WHEN
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> underTest.execute(() -> {
+                throw new ServiceOverloadedException("busy");
+            })).isInstanceOf(ServiceOverloadedException.class);
+        }
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(underTest.status().bufferedCalls()).isZero();
+    }
+
+    @Test
+    void closesAgainAfterSuccessfulTrialCalls() {
+        //GIVEN
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        //WHEN
+        succeed(1);
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed(1);
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(underTest.status().bufferedCalls()).isZero();
+    }
+
+    @Test
+    void failedTrialCallOpensAgain() {
+        //GIVEN
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        //WHEN
+        fail();
+
+        //THEN
+        assertThat(underTest.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(underTest.status().timesOpened()).isEqualTo(2);
+        assertThatThrownBy(() -> succeed(1)).isInstanceOf(DatabaseUnavailableException.class);
+    }
+
+    @Test
+    void halfOpenLetsOnlyTheConfiguredTrialCallsThrough() {
+        //GIVEN
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        //WHEN
+        int first = underTest.acquire();
+        int second = underTest.acquire();
+
+        //THEN
+        assertThat(first).isPositive();
+        assertThat(second).isEqualTo(first);
+        assertThatThrownBy(() -> underTest.acquire()).isInstanceOf(DatabaseUnavailableException.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.matay.resilience;
+
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerDao;
+import com.matay.exception.DatabaseUnavailableException;
+import com.matay.exception.RequestValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerResilientDataAccessServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private CustomerStaleCache customerStaleCache;
+    private CustomerResilientDataAccessService underTest;
+
+    private final Customer matay = new Customer(1, "Matay", "matay@code.com", 25);
+    private final Customer yatam = new Customer(2, "Yatam", "yatam@code.com", 52);
+
+    @BeforeEach
+    void setUp() {
+        StaleReadProperties properties = new StaleReadProperties(true, 100, Duration.ofHours(1), 1, 10,
+                Duration.ofSeconds(2));
+        customerStaleCache = new CustomerStaleCache(properties);
+        underTest = new CustomerResilientDataAccessService(customerDao, customerStaleCache, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void servesTheLastReadWhenTheDatabaseFails() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1))
+                .thenReturn(Optional.of(matay))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        underTest.selectCustomerById(1);
+
+        //WHEN
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        //THEN
+        assertThat(actual).hasValueSatisfying(customer -> {
+            assertThat(customer).isInstanceOf(StaleCustomer.class);
+            assertThat(customer.getName()).isEqualTo("Matay");
+        });
+        assertThat(customerStaleCache.getFreshCount()).isEqualTo(1);
+        assertThat(customerStaleCache.getStaleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rethrowsWhenThereIsNothingToServe() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1)).thenThrow(new DatabaseUnavailableException("open"));
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.selectCustomerById(1)).isInstanceOf(DatabaseUnavailableException.class);
+    }
+
+    @Test
+    void otherFailuresAreNotHidden() {
+        //GIVEN
+        when(customerDao.selectCustomerById(1))
+                .thenReturn(Optional.of(matay))
+                .thenThrow(new RequestValidationException("bad"));
+        underTest.selectCustomerById(1);
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.selectCustomerById(1)).isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void customersNotFoundOrWrittenAreForgotten() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(List.of(1, 2))).thenReturn(List.of(matay, yatam));
+        when(customerDao.selectCustomersByIds(List.of(1))).thenReturn(List.of());
+        underTest.selectCustomersByIds(List.of(1, 2));
+
+        //WHEN
+        underTest.selectCustomersByIds(List.of(1));
+        underTest.updateCustomer(yatam);
+
+        //THEN
+        assertThat(customerStaleCache.size()).isZero();
+    }
+
+    @Test
+    void batchFullyCoveredByTheStaleCacheIsServedStale() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(List.of(1, 2)))
+                .thenReturn(List.of(matay, yatam))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        underTest.selectCustomersByIds(List.of(1, 2));
+
+        //WHEN
+        List<Customer> actual = underTest.selectCustomersByIds(List.of(1, 2));
+
+        //THEN
+        assertThat(actual).hasSize(2).allMatch(customer -> customer instanceof StaleCustomer);
+    }
+
+    @Test
+    void batchPartlyCoveredByTheStaleCacheFailsWithTheStaleCustomers() {
+        //GIVEN
+        when(customerDao.selectCustomersByIds(List.of(1))).thenReturn(List.of(matay));
+        when(customerDao.selectCustomersByIds(List.of(1, 2))).thenThrow(new DataAccessResourceFailureException("down"));
+        underTest.selectCustomersByIds(List.of(1));
+
+        //WHEN / THEN
+        assertThatThrownBy(() -> underTest.selectCustomersByIds(List.of(1, 2)))
+                .isInstanceOfSatisfying(PartialStaleReadException.class, e -> assertThat(e.getStaleCustomers())
+                        .singleElement()
+                        .satisfies(customer -> assertThat(customer.getId()).isEqualTo(1)))
+                .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void fallbackQueuesARefreshOfTheServedIds() {
+        //GIVEN
+        Customer renamed = new Customer(1, "Matay Jr", "matay@code.com", 25);
+        when(customerDao.selectCustomerById(1))
+                .thenReturn(Optional.of(matay))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(customerDao.selectCustomersByIds(List.of(1))).thenReturn(List.of(renamed));
+        underTest.selectCustomerById(1);
+
+        //WHEN
+        underTest.selectCustomerById(1);
+
+        //THEN
+        verify(customerDao, timeout(5_000)).selectCustomersByIds(List.of(1));
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        StaleCustomer refreshed = customerStaleCache.get(1);
+        while (!"Matay Jr".equals(refreshed.getName()) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            refreshed = customerStaleCache.get(1);
+        }
+        assertThat(refreshed.getName()).isEqualTo("Matay Jr");
+    }
+}
@@ -0,0 +1,187 @@
+package com.matay.sharding;
+
+import com.github.javafaker.Faker;
+import com.matay.customer.Customer;
+import com.matay.customer.CustomerRowMapper;
+import com.matay.datasource.DataSourceWrappers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+class CustomerShardRebalancerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("mataycode-shard-0")
+            .withUsername("mataycode")
+            .withPassword("password");
+
+    @Container
+    private static final PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("mataycode-shard-1")
+            .withUsername("mataycode")
+            .withPassword("password");
+
+    private static final Faker FAKER = new Faker();
+
+    private ShardRegistry shardRegistry;
+    private CustomerShardedDataAccessService customerDao;
+    private CustomerShardRebalancer underTest;
+
+    @BeforeEach
+    void setUp() {
+        ShardingProperties properties = new ShardingProperties(true, 4, 0, List.of(
+                new ShardingProperties.Shard(shard0.getJdbcUrl(), shard0.getUsername(), shard0.getPassword()),
+                new ShardingProperties.Shard(shard1.getJdbcUrl(), shard1.getUsername(), shard1.getPassword())
+        ));
+        shardRegistry = new ShardingConfig().shardRegistry(properties, new DataSourceWrappers(List.of()));
+        CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+        customerDao = new CustomerShardedDataAccessService(shardRegistry, customerRowMapper, false);
+        underTest = new CustomerShardRebalancer(shardRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        customerDao.shutdown();
+        shardRegistry.close();
+    }
+
+    @Test
+    void routesCustomersToTheShardOwningTheirSlot() {
+        //GIVEN
+        String email = randomEmail();
+
+        //WHEN
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+
+        //THEN
+        Customer inserted = customerDao.selectAllCustomers().stream()
+                .filter(c -> c.getEmail().equals(email))
+                .findFirst()
+                .orElseThrow();
+        int slot = shardRegistry.slotOf(inserted.getId());
+        assertThat(slot).isEqualTo(shardRegistry.slotForEmail(email));
+        assertThat(shardRegistry.shardIndexOfSlot(slot)).isEqualTo(slot % 2);
+        assertThat(customerDao.selectCustomerById(inserted.getId())).contains(inserted);
+        assertThat(customerDao.existsPersonWithEmail(email)).isTrue();
+    }
+
+    @Test
+    void rejectsDuplicateEmailAcrossShards() {
+        //GIVEN
+        String email = randomEmail();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 40)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void moveSlotKeepsIdsAndData() {
+        //GIVEN
+        String email = randomEmail();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        Customer inserted = customerDao.selectAllCustomers().stream()
+                .filter(c -> c.getEmail().equals(email))
+                .findFirst()
+                .orElseThrow();
+        int slot = shardRegistry.slotOf(inserted.getId());
+        int target = 1 - shardRegistry.shardIndexOfSlot(slot);
+
+        //WHEN
+        underTest.moveSlot(slot, target);
+
+        //THEN
+        assertThat(shardRegistry.shardIndexOfSlot(slot)).isEqualTo(target);
+        assertThat(customerDao.selectCustomerById(inserted.getId())).contains(inserted);
+        Integer leftBehind = shardRegistry.shards().get(1 - target).queryForObject(
+                "SELECT count(*) FROM customer WHERE id = ?", Integer.class, inserted.getId()
+        );
+        assertThat(leftBehind).isZero();
+        //a move is not a delete, sync clients must not see a tombstone for the moved customer
+        Integer tombstones = shardRegistry.shards().get(1 - target).queryForObject(
+                "SELECT count(*) FROM customer_tombstone WHERE id = ?", Integer.class, inserted.getId()
+        );
+        assertThat(tombstones).isZero();
+
+        //new ids for the moved slot must not collide with the copied rows
+        String another = randomEmailInSlot(slot);
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), another, 20));
+        assertThat(customerDao.existsPersonWithEmail(another)).isTrue();
+    }
+
+    @Test
+    void moveSlotKeepsSoftDeletedCustomersDeleted() {
+        //GIVEN
+        String email = randomEmail();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        int slot = shardRegistry.slotForEmail(email);
+        JdbcTemplate source = shardRegistry.shards().get(shardRegistry.shardIndexOfSlot(slot));
+        Integer id = source.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+        source.update("UPDATE customer SET deleted_at = now() WHERE id = ?", id);
+        int target = 1 - shardRegistry.shardIndexOfSlot(slot);
+
+        //WHEN
+        underTest.moveSlot(slot, target);
+
+        //THEN
+        Boolean deleted = shardRegistry.shards().get(target).queryForObject(
+                "SELECT deleted_at IS NOT NULL FROM customer WHERE id = ?", Boolean.class, id
+        );
+        assertThat(deleted).isTrue();
+    }
+
+    @Test
+    void softDeleteHidesTheCustomerAndReleasesTheEmail() {
+        //GIVEN
+        CustomerShardedDataAccessService softDeleting =
+                new CustomerShardedDataAccessService(shardRegistry, new CustomerRowMapper(), true);
+        String email = randomEmail();
+        softDeleting.insertCustomer(new Customer(FAKER.name().fullName(), email, 30));
+        int slot = shardRegistry.slotForEmail(email);
+        JdbcTemplate shard = shardRegistry.shards().get(shardRegistry.shardIndexOfSlot(slot));
+        Integer id = shard.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+
+        //WHEN
+        softDeleting.deleteCustomerById(id);
+
+        //THEN
+        Boolean deleted = shard.queryForObject(
+                "SELECT deleted_at IS NOT NULL FROM customer WHERE id = ?", Boolean.class, id
+        );
+        assertThat(deleted).isTrue();
+        assertThat(softDeleting.selectCustomerById(id)).isEmpty();
+        assertThat(softDeleting.selectCustomersByIds(List.of(id))).isEmpty();
+        assertThat(softDeleting.existPersonWithId(id)).isFalse();
+        assertThat(softDeleting.existsPersonWithEmail(email)).isFalse();
+        softDeleting.insertCustomer(new Customer(FAKER.name().fullName(), email, 40));
+        assertThat(softDeleting.existsPersonWithEmail(email)).isTrue();
+        softDeleting.shutdown();
+    }
+
+    private static String randomEmail() {
+        return FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+    }
+
+    private String randomEmailInSlot(int slot) {
+        String email;
+        do {
+            email = randomEmail();
+        } while (shardRegistry.slotForEmail(email) != slot);
+        return email;
+    }
+}
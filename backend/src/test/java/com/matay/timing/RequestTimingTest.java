@@ -0,0 +1,85 @@
+package com.matay.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+class RequestTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.clear();
+    }
+
+    @Test
+    void phasesAreExclusiveAndAddUpToTotal() throws Exception {
+        //GIVEN
+        RequestTiming timing = RequestTiming.start();
+
+        //WHEN
+        RequestTiming.Phase outer = RequestTiming.enter(RequestTiming.Phase.SQL);
+        RequestTiming.countStatement();
+        Thread.sleep(20);
+        RequestTiming.Phase inner = RequestTiming.enter(RequestTiming.Phase.MAPPING);
+        Thread.sleep(10);
+        RequestTiming.exit(inner);
+        RequestTiming.exit(outer);
+        RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+        String header = timing.finish();
+
+        //THEN
+        assertThat(outer).isEqualTo(RequestTiming.Phase.SERVICE);
+        assertThat(inner).isEqualTo(RequestTiming.Phase.SQL);
+        Map<String, Double> durations = durations(header);
+        assertThat(durations).containsOnlyKeys("conn", "sql", "map", "ser", "svc", "total");
+        assertThat(durations.get("sql")).isGreaterThanOrEqualTo(20.0);
+        assertThat(durations.get("map")).isGreaterThanOrEqualTo(10.0).isLessThan(durations.get("sql"));
+        double sum = durations.entrySet().stream()
+                .filter(e -> !e.getKey().equals("total"))
+                .mapToDouble(Map.Entry::getValue)
+                .sum();
+        assertThat(sum).isCloseTo(durations.get("total"), offset(0.01));
+        assertThat(header).contains("sql;dur=").contains("desc=\"1 statement\"");
+    }
+
+    @Test
+    void finishIsFinal() {
+        //GIVEN
+        RequestTiming timing = RequestTiming.start();
+        String header = timing.finish();
+
+        //WHEN
+        RequestTiming.enter(RequestTiming.Phase.SQL);
+        RequestTiming.countStatement();
+
+        //THEN
+        assertThat(timing.finish()).isSameAs(header);
+    }
+
+    @Test
+    void doesNothingWhenRequestIsNotTimed() {
+        //WHEN
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.SQL);
+        RequestTiming.exit(previous);
+        RequestTiming.countStatement();
+
+        //THEN
+        assertThat(previous).isNull();
+        assertThat(RequestTiming.isActive()).isFalse();
+    }
+
+    private static Map<String, Double> durations(String header) {
+        return Arrays.stream(header.split(", "))
+                .map(metric -> metric.split(";"))
+                .collect(Collectors.toMap(
+                        parts -> parts[0],
+                        parts -> Double.parseDouble(parts[1].substring("dur=".length()))
+                ));
+    }
+}
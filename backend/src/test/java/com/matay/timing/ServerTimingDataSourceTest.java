@@ -0,0 +1,66 @@
+package com.matay.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServerTimingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.clear();
+    }
+
+    @Test
+    void timesStatementsAndFetchesOfTimedRequests() throws Exception {
+        //GIVEN
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(15);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(true, false);
+        RequestTiming timing = RequestTiming.start();
+
+        //WHEN
+        try (Connection timed = new ServerTimingDataSource(pool).getConnection()) {
+            ResultSet rows = timed.prepareStatement("SELECT 1").executeQuery();
+            while (rows.next()) {
+                rows.getInt(1);
+            }
+        }
+        String header = timing.finish();
+
+        //THEN
+        assertThat(header).contains("desc=\"1 statement\"");
+        String sql = header.substring(header.indexOf("sql;dur=") + "sql;dur=".length());
+        assertThat(Double.parseDouble(sql.substring(0, sql.indexOf(';')))).isGreaterThanOrEqualTo(15.0);
+    }
+
+    @Test
+    void returnsPlainConnectionsOutsideTimedRequests() throws Exception {
+        //GIVEN
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(connection);
+
+        //WHEN
+        Connection actual = new ServerTimingDataSource(pool).getConnection();
+
+        //THEN
+        assertThat(actual).isSameAs(connection);
+    }
+}
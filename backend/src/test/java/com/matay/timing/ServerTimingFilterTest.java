@@ -0,0 +1,80 @@
+package com.matay.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingFilter underTest =
+            new ServerTimingFilter(new ServerTimingProperties(true, "X-Server-Timing", 0.0));
+
+    @Test
+    void addsHeaderBeforeFirstByte() throws Exception {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.addHeader("X-Server-Timing", "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.doFilter(request, response, (req, res) -> {
+            assertThat(RequestTiming.isActive()).isTrue();
+            RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+        });
+
+        //THEN
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING))
+                .startsWith("conn;dur=")
+                .contains("ser;dur=")
+                .contains("total;dur=");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+        assertThat(RequestTiming.isActive()).isFalse();
+    }
+
+    @Test
+    void addsHeaderToResponsesWithoutBody() throws Exception {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/v1/customers/1");
+        request.addHeader("X-Server-Timing", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.doFilter(request, response, (req, res) -> {
+        });
+
+        //THEN
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING)).contains("total;dur=");
+    }
+
+    @Test
+    void leavesUnrequestedRequestsAlone() throws Exception {
+        //GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //WHEN
+        underTest.doFilter(request, response, (req, res) -> assertThat(RequestTiming.isActive()).isFalse());
+
+        //THEN
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING)).isNull();
+    }
+
+    @Test
+    void samplesRequests() {
+        //GIVEN
+        ServerTimingFilter sampling = new ServerTimingFilter(new ServerTimingProperties(true, "X-Server-Timing", 1.0));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+
+        //WHEN
+        //THEN
+        assertThat(sampling.isRequested(request)).isTrue();
+        request.addHeader("X-Server-Timing", "false");
+        assertThat(sampling.isRequested(request)).isFalse();
+    }
+}